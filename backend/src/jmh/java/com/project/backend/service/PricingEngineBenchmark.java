@@ -0,0 +1,110 @@
+package com.project.backend.service;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.project.backend.repository.ProductSkuRepository;
+
+/**
+ * Per-line pricing through {@link PricingEngine#price(long)}. Run with
+ * {@code mvn -Pjmh compile exec:exec}; the gc profiler's
+ * {@code gc.alloc.rate.norm} should stay at ~0 B/op for both benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingEngineBenchmark {
+
+    @Param({ "100000" })
+    private int sizes;
+
+    // 장바구니 한 번에 계산하는 줄 수
+    @Param({ "20" })
+    private int lines;
+
+    private PricingEngine engine;
+
+    private long[] cartSizeIds;
+
+    private int[] cartQtys;
+
+    private int cursor;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+
+        SplittableRandom random = new SplittableRandom(42);
+
+        // findPriceRows 와 같은 (productId, sizeId, price, discount)
+        List<Object[]> rows = new ArrayList<>(sizes);
+        long sizeId = 500_000_000_000_000L;
+        for (int i = 0; i < sizes; i++) {
+            sizeId += 1 + random.nextInt(1_000);
+            rows.add(new Object[] { (long) (i / 4), sizeId, 1_000 + random.nextInt(200_000), random.nextInt(5) * 5 });
+        }
+
+        // 저장소는 findPriceRows 만 쓰인다
+        ProductSkuRepository repository = (ProductSkuRepository) Proxy.newProxyInstance(
+                ProductSkuRepository.class.getClassLoader(), new Class<?>[] { ProductSkuRepository.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findPriceRows"))
+                        return rows;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        engine = new PricingEngine(repository);
+        Field enabled = PricingEngine.class.getDeclaredField("enabled");
+        enabled.setAccessible(true);
+        enabled.setBoolean(engine, true);
+        engine.build();
+
+        cartSizeIds = new long[lines * 64];
+        cartQtys = new int[cartSizeIds.length];
+        for (int i = 0; i < cartSizeIds.length; i++) {
+            cartSizeIds[i] = (Long) rows.get(random.nextInt(rows.size()))[1];
+            cartQtys[i] = 1 + random.nextInt(3);
+        }
+    }
+
+    @Benchmark
+    public int priceLine() {
+        if (++cursor == cartSizeIds.length)
+            cursor = 0;
+        return engine.price(cartSizeIds[cursor]);
+    }
+
+    // 주문 한 건의 모든 줄 합계 (OrderService 가 줄마다 하는 일)
+    @Benchmark
+    public long priceCart() {
+
+        if (++cursor == 64)
+            cursor = 0;
+        int from = cursor * lines;
+        long total = 0;
+        for (int i = from; i < from + lines; i++) {
+            int price = engine.price(cartSizeIds[i]);
+            if (price != PricingEngine.UNKNOWN)
+                total += (long) price * cartQtys[i];
+        }
+        return total;
+    }
+}
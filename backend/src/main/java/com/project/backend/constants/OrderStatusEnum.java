@@ -11,5 +11,9 @@ public enum OrderStatusEnum {
     DISPATCHED,
     CANCELED,
     COMPLETED,
+    // 결제됐지만 재고를 확정하지 못한 주문: 환불하거나 입고 후 보낸다
+    BACKORDERED,
+    // 결제는 기록됐지만 재고 확정이 (잠금 대기 초과 등으로) 미뤄진 주문, 재고 sweep 이 다시 확정한다
+    STOCK_PENDING,
     
 }
@@ -0,0 +1,12 @@
+package com.project.backend.constants;
+
+// 재고 예약 상태: RESERVED -> COMMITTED (결제) 또는 RESERVED -> RELEASED (만료),
+// 만료 뒤 결제됐는데 품절이면 RELEASED -> BACKORDERED
+public enum ReservationStatus {
+
+    RESERVED,
+    COMMITTED,
+    RELEASED,
+    BACKORDERED
+
+}
@@ -43,7 +43,9 @@ import com.project.backend.security.response.MessageResponse;
 import com.project.backend.security.response.SubCategoryResponse;
 import com.project.backend.service.CategoryService;
 import com.project.backend.service.CouponService;
+import com.project.backend.service.InventoryService;
 import com.project.backend.service.ProductService;
+import com.project.backend.service.ReviewService;
 import com.project.backend.service.UserService;
 
 import jakarta.mail.Multipart;
@@ -70,6 +72,10 @@ public class AdminController {
 
     private final CategoryService categoryService;
 
+    private final ReviewService reviewService;
+
+    private final InventoryService inventoryService;
+
     private final CategoryRepository categoryRepository;
 
     private final SubCategoryRepository subCategoryRepository;
@@ -80,11 +86,13 @@ public class AdminController {
     public AdminController(UserService userService, ProductService productService, CouponService couponService,
             CategoryService categoryService, CategoryRepository categoryRepository,
             SubCategoryRepository subCategoryRepository, ProductRepository productRepository,
-            ProductSkuRepository productskuRepository) {
+            ProductSkuRepository productskuRepository, ReviewService reviewService, InventoryService inventoryService) {
         this.userService = userService;
         this.productService = productService;
         this.couponService = couponService;
         this.categoryService = categoryService;
+        this.reviewService = reviewService;
+        this.inventoryService = inventoryService;
         this.categoryRepository = categoryRepository;
         this.subCategoryRepository = subCategoryRepository;
         this.productRepository = productRepository;
@@ -284,9 +292,14 @@ public class AdminController {
     }
 
     @GetMapping(value = "/product/products")
-    ResponseEntity<?> getProducts() {
+    ResponseEntity<?> getProducts(@RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
 
         try {
+            // cursor가 있으면 (빈 값 포함) keyset 페이지로 준다
+            if (cursor != null)
+                return new ResponseEntity<>(productService.getProductPage(cursor, Math.max(size, 1)), HttpStatus.OK);
+
             List<Product> products = productRepository.findAll();
 
             List<ProductDTO> response = new ArrayList<ProductDTO>();
@@ -308,6 +321,49 @@ public class AdminController {
 
     }
 
+    // 리뷰 집계(rating, num_reviews, 별점 분포)를 review 테이블에서 다시 계산한다
+    @PostMapping("/reviews/reconcile")
+    ResponseEntity<?> reconcileReviewAggregates() {
+
+        try {
+            int updated = reviewService.reconcileAggregates();
+
+            return new ResponseEntity<>(new MessageResponse("Reconciled " + updated + " products"), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    // sku 의 사이즈 재고를 Redis 카운터로 옮긴다 (inventory.flash-sale.enabled=true 필요)
+    @PostMapping("/flash-sale/{skuId}")
+    ResponseEntity<?> armFlashSale(@PathVariable String skuId) {
+
+        try {
+            int sizes = inventoryService.armFlashSale(Long.parseLong(skuId));
+
+            return new ResponseEntity<>(new MessageResponse("Flash sale stock loaded for " + sizes + " sizes"),
+                    HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/flash-sale/{skuId}")
+    ResponseEntity<?> disarmFlashSale(@PathVariable String skuId) {
+
+        try {
+            int sizes = inventoryService.disarmFlashSale(Long.parseLong(skuId));
+
+            return new ResponseEntity<>(new MessageResponse("Flash sale stock written back for " + sizes + " sizes"),
+                    HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
     @GetMapping("/product/{productId}")
     ResponseEntity<?> getParentProduct(@PathVariable String productId) {
 
@@ -11,6 +11,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -98,6 +99,42 @@ public class CartController {
 
     }
 
+    // 한 줄의 수량만 바꾼다 (qty: 새 수량)
+    @PatchMapping("/item/{uid}/qty")
+    ResponseEntity<?> updateCartItemQty(@PathVariable String uid, @RequestParam("qty") int qty,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        if (null == userDetails)
+            return new ResponseEntity<>(StatusMessages.USER_NOT_FOUND, HttpStatus.UNAUTHORIZED);
+
+        try {
+            int cartTotal = cartService.updateCartItemQty(userDetails.getUsername(), uid, qty);
+
+            return new ResponseEntity<>(new CartResponse(cartTotal), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    // 한 줄의 수량을 delta 만큼 늘리거나 줄인다
+    @PatchMapping("/item/{uid}/qty/add")
+    ResponseEntity<?> addCartItemQty(@PathVariable String uid, @RequestParam("delta") int delta,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        if (null == userDetails)
+            return new ResponseEntity<>(StatusMessages.USER_NOT_FOUND, HttpStatus.UNAUTHORIZED);
+
+        try {
+            int cartTotal = cartService.addCartItemQty(userDetails.getUsername(), uid, delta);
+
+            return new ResponseEntity<>(new CartResponse(cartTotal), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
     @GetMapping("/loadcart") 
     ResponseEntity<?> loadCart(@AuthenticationPrincipal UserDetails userDetails) {
 
@@ -5,6 +5,7 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,11 +14,14 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.project.backend.constants.StatusMessages;
+import com.project.backend.dto.CursorPageDTO;
 import com.project.backend.dto.ProductDTO;
 import com.project.backend.dto.ProductInfoDTO;
+import com.project.backend.dto.ProductQADTO;
 import com.project.backend.model.Product;
 import com.project.backend.repository.ProductRepository;
 import com.project.backend.security.response.MessageResponse;
+import com.project.backend.service.ProductReadModel;
 import com.project.backend.service.ProductService;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,18 +36,29 @@ public class ProductController {
 
     private final ProductRepository productRepository;
 
-    public ProductController(ProductService productService, ProductRepository productRepository) {
+    private final ProductReadModel productReadModel;
+
+    public ProductController(ProductService productService, ProductRepository productRepository,
+            ProductReadModel productReadModel) {
         this.productService = productService;
         this.productRepository = productRepository;
+        this.productReadModel = productReadModel;
     }
 
     @GetMapping("/{slug}")
     public ResponseEntity<?> getProductInfo(@PathVariable(required = true) String slug
             ) {
         try {
+            // 저장된 문서가 있으면 JPA/Jackson을 거치지 않고 그대로 내보낸다
+            String stored = productReadModel.get(slug);
+            if (stored != null)
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(stored);
+
             List<ProductDTO> dto = productService.getProductsBySlug(slug);
+            ProductDTO first = dto.get(0);
+            productReadModel.warm(slug);
 
-            return new ResponseEntity<>(dto.get(0), HttpStatus.OK);
+            return new ResponseEntity<>(first, HttpStatus.OK);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new MessageResponse(StatusMessages.PRODUCT_IS_EMPTY));
@@ -51,6 +66,21 @@ public class ProductController {
 
     }
 
+    @GetMapping("/{productId}/questions")
+    public ResponseEntity<?> getQuestions(@PathVariable("productId") String productId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
+        try {
+            CursorPageDTO<ProductQADTO> result = productService.getQuestions(Long.parseLong(productId), cursor,
+                    Math.max(size, 1));
+
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(StatusMessages.PRODUCT_IS_EMPTY));
+        }
+    }
+
     @GetMapping("/cart/{product_id}")
     public ResponseEntity<?> getProductInfoWithParams(@PathVariable(required = true) String product_id,
             @RequestParam("style") int style, @RequestParam("size") int size)
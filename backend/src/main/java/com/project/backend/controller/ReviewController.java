@@ -19,7 +19,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.project.backend.constants.StatusMessages;
+import com.project.backend.dto.CursorPageDTO;
 import com.project.backend.dto.ReviewDTO;
+import com.project.backend.dto.ReviewLikeDTO;
 
 import com.project.backend.security.request.ReviewRequest;
 import com.project.backend.security.response.MessageResponse;
@@ -37,6 +39,51 @@ public class ReviewController {
         this.reviewService = reviewService;
     }
 
+    @GetMapping("{productId}/reviews")
+    ResponseEntity<?> getReviews(@PathVariable("productId") String id,
+            @RequestParam(value = "sort", defaultValue = "newest") String sort,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
+
+        try {
+            CursorPageDTO<ReviewDTO> result = reviewService.getReviews(Long.parseLong(id), sort, cursor,
+                    Math.max(size, 1));
+
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(StatusMessages.PRODUCT_IS_EMPTY));
+        }
+    }
+
+
+    @PutMapping("review/{reviewId}/like")
+    ResponseEntity<?> likeReview(@PathVariable("reviewId") String reviewId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        return changeLike(reviewId, true, userDetails);
+    }
+
+    @DeleteMapping("review/{reviewId}/like")
+    ResponseEntity<?> unlikeReview(@PathVariable("reviewId") String reviewId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        return changeLike(reviewId, false, userDetails);
+    }
+
+    private ResponseEntity<?> changeLike(String reviewId, boolean like, UserDetails userDetails) {
+
+        if (null == userDetails)
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(StatusMessages.USER_NOT_FOUND);
+
+        try {
+            ReviewLikeDTO result = reviewService.likeReview(userDetails.getUsername(), Long.parseLong(reviewId), like);
+
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
 
     @PutMapping("{productId}/addreview")
     ResponseEntity<?> addReview(@PathVariable("productId") String id, @RequestBody ReviewRequest request,
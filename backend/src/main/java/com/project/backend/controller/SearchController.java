@@ -9,16 +9,19 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.project.backend.constants.StatusMessages;
 import com.project.backend.dto.SearchResultDTO;
+import com.project.backend.dto.SuggestionDTO;
 import com.project.backend.model.Product;
 import com.project.backend.model.ProductCategory;
 import com.project.backend.model.Review;
 import com.project.backend.repository.CategoryRepository;
 import com.project.backend.repository.ProductRepository;
 import com.project.backend.repository.ProductSkuRepository;
+import com.project.backend.search.SuggestIndex;
 import com.project.backend.security.request.SearchParamsRequest;
 import com.project.backend.security.response.MessageResponse;
 import com.project.backend.service.ProductService;
@@ -29,9 +32,12 @@ public class SearchController {
 
     private final ProductService productService;
 
+    private final SuggestIndex suggestIndex;
+
     @Autowired
-    public SearchController(ProductService productService) {
+    public SearchController(ProductService productService, SuggestIndex suggestIndex) {
         this.productService = productService;
+        this.suggestIndex = suggestIndex;
     }
 
     @GetMapping("/search")
@@ -42,4 +48,12 @@ public class SearchController {
 
     }    
 
+    @GetMapping("/search/suggest")
+    public ResponseEntity<?> suggest(@RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+
+        List<SuggestionDTO> suggestions = suggestIndex.suggest(query, limit);
+        return new ResponseEntity<>(suggestions, HttpStatus.OK);
+    }
+
 }
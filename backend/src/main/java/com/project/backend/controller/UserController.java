@@ -16,7 +16,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.project.backend.constants.StatusMessages;
-import com.project.backend.dto.OrderDTO;
+import com.project.backend.dto.OrderSummaryDTO;
 import com.project.backend.dto.UserDTO;
 import com.project.backend.model.User;
 import com.project.backend.security.request.PasswordRequest;
@@ -87,13 +87,20 @@ public class UserController {
 
     @GetMapping("/orders")
     public ResponseEntity<?> getOrders(@RequestParam String filter,
+    @RequestParam(value = "cursor", required = false) String cursor,
+    @RequestParam(value = "size", defaultValue = "10") int size,
     @AuthenticationPrincipal UserDetails userDetails) {
 
         if (null != userDetails) {
 
             try {
+
+                // cursor가 있으면 (빈 값 포함) keyset 페이지로 준다
+                if (cursor != null)
+                    return new ResponseEntity<>(orderService.getOrderPage(userDetails.getUsername(), filter,
+                            cursor, Math.max(size, 1)), HttpStatus.OK);
                 
-                List<OrderDTO> response =  orderService.getOrders(userDetails.getUsername(), filter);
+                List<OrderSummaryDTO> response =  orderService.getOrders(userDetails.getUsername(), filter);
                 return new ResponseEntity<>(response, HttpStatus.OK); 
                 
             }
@@ -0,0 +1,45 @@
+package com.project.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Redis 장바구니 한 줄 (cart_product 와 같은 값, _uid 로 구분)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLineDTO {
+
+    private String _uid;
+
+    // DB에서 읽은 줄만 가진다 (저장할 때마다 새로 만들어지므로 Redis 에는 두지 않는다)
+    @JsonIgnore
+    private Long cartproductId;
+
+    private Long productId;
+
+    private Long sizeId;
+
+    private String name;
+
+    private String image;
+
+    private String size;
+
+    private int style;
+
+    private int qty;
+
+    private ColorAttributeDTO color;
+
+    private int price;
+
+    private int shipping;
+
+    // 해시에는 순서가 없어서 담은 순서를 따로 둔다
+    private int position;
+}
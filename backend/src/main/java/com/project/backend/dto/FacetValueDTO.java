@@ -0,0 +1,17 @@
+package com.project.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetValueDTO {
+
+    private String value;
+
+    private int count;
+}
@@ -0,0 +1,42 @@
+package com.project.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 주문 내역 목록용 (배송지, 사용자 정보 없이)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+
+    private String id;
+
+    private String orderNumber;
+
+    private List<OrderedProductDTO> products;
+
+    private String paymentMethod;
+
+    private String paymentResult;
+
+    private int total;
+
+    private int totalBeforeDiscount;
+
+    private String couponApplied;
+
+    @JsonProperty("isPaid")
+    private boolean isPaid;
+
+    private String status;
+
+    private LocalDateTime createdAt;
+}
@@ -46,9 +46,13 @@ public class ProductDTO  {
 
     private List<ProductDetailDTO> details;
     
+    // 최신 리뷰 일부만, 나머지는 /api/product/{id}/reviews
     private List<ReviewDTO> reviews;
+
+    private ReviewSummaryDTO reviewSummary;
     
-    private List<ProductQADTO> questions;
+    // Q&A 본문은 /api/product/{id}/questions 에서 페이지로 준다
+    private long questionCount;
     
     private List<ProductSkuDTO> sku_products;
 
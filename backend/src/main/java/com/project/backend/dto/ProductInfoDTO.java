@@ -52,7 +52,8 @@ public class ProductInfoDTO {
 
     private List<ProductDetailDTO> details; 
         
-    private List<ProductQADTO> questions;
+    // Q&A 본문은 /api/product/{id}/questions 에서 페이지로 준다
+    private long questionCount;
 
     private List<ReviewDTO> reviews;
     
@@ -0,0 +1,36 @@
+package com.project.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 검색/카테고리 목록용 요약 (view=summary)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryDTO {
+
+    private String id;
+
+    private String name;
+
+    private String slug;
+
+    private String brand;
+
+    private float rating;
+
+    private int num_reviews;
+
+    // 첫 번째 sku의 첫 번째 이미지
+    private String image;
+
+    private Integer minPrice;
+
+    private Integer maxPrice;
+
+    // 첫 번째 sku의 할인율
+    private int discount;
+}
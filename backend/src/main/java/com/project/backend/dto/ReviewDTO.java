@@ -14,6 +14,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class ReviewDTO {
 
+    private String id;
+
     private String size;
     private ReviewStyleDTO style;
     private String fit;
@@ -26,4 +28,8 @@ public class ReviewDTO {
 
     private ReviewerDTO reviewedBy;
 
+    private int likeCount;
+
+    private String createdAt;
+
 }
@@ -0,0 +1,20 @@
+package com.project.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewLikeDTO {
+
+    private String reviewId;
+
+    private boolean liked;
+
+    // 아직 반영되지 않은 카운터 값까지 더한 수
+    private long likeCount;
+}
@@ -0,0 +1,23 @@
+package com.project.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 상품 응답에는 리뷰 전체 대신 요약만 싣는다
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSummaryDTO {
+
+    private int count;
+
+    private float average;
+
+    // 1점부터 5점까지 개수
+    private List<Integer> stars;
+}
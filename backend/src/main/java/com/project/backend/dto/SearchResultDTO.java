@@ -1,6 +1,7 @@
 package com.project.backend.dto;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.springframework.data.domain.Page;
@@ -20,7 +21,8 @@ import lombok.Setter;
 public class SearchResultDTO {
 
     //private Set<ProductDTO> products;
-    private Page<ProductDTO> product;
+    // ProductDTO, view=summary면 ProductSummaryDTO
+    private Page<?> product;
 
     private List<CategoryDTO> categories;
 
@@ -34,9 +36,15 @@ public class SearchResultDTO {
 
     private List<ProductDetailDTO> details;
 
+    // search.index.enabled일 때만 채워진다
+    private Map<String, List<FacetValueDTO>> facets;
+
 
     private int totalProducts;
 
+    // cursor 모드에서 다음 페이지, 마지막이면 null
+    private String nextCursor;
+
 
     
 
@@ -0,0 +1,51 @@
+package com.project.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 장바구니/주문 한 줄 가격 계산에 필요한 값만 (style, size 로 찾은 결과)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkuPriceDTO {
+
+    private Long productId;
+
+    private String name;
+
+    private int shipping;
+
+    private Long skuId;
+
+    private String sku;
+
+    private int style;
+
+    private int discount;
+
+    private List<String> images;
+
+    private ColorAttributeDTO color;
+
+    private Long sizeId;
+
+    private int sizeIndex;
+
+    private String size;
+
+    private int priceBefore;
+
+    private int price;
+
+    // 재고
+    private int quantity;
+
+    public String getImage() {
+        return images == null || images.isEmpty() ? null : images.get(0);
+    }
+}
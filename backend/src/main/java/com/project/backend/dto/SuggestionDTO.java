@@ -0,0 +1,25 @@
+package com.project.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+
+    // product, brand, category, subcategory
+    private String type;
+
+    private String id;
+
+    private String text;
+
+    private String slug;
+
+    // 판매량 합계
+    private long score;
+}
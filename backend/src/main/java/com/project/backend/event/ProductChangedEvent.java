@@ -0,0 +1,47 @@
+package com.project.backend.event;
+
+import org.springframework.context.ApplicationEvent;
+
+@SuppressWarnings("serial")
+public class ProductChangedEvent extends ApplicationEvent {
+
+    // STOCK: 재고/판매량만 바뀜 (가격, 사이즈, 색상은 그대로), CONTENT: 그 밖의 변경
+    public enum Kind {
+        CONTENT,
+        STOCK
+    }
+
+    private final Long productId;
+    private final Long categoryId;
+    private final Kind kind;
+
+    public ProductChangedEvent(final Object source, final Long productId, final Long categoryId) {
+        this(source, productId, categoryId, Kind.CONTENT);
+    }
+
+    public ProductChangedEvent(final Object source, final Long productId, final Long categoryId, final Kind kind) {
+        super(source);
+        this.productId = productId;
+        this.categoryId = categoryId;
+        this.kind = kind;
+    }
+
+    // null이면 카테고리 등 카탈로그 전체에 걸친 변경
+    public Long getProductId() {
+        return productId;
+    }
+
+    // null이면 카테고리를 알 수 없는 변경
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isStockOnly() {
+        return kind == Kind.STOCK;
+    }
+
+}
@@ -15,6 +15,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -39,6 +40,10 @@ public class Cart extends BaseEntity {
     private int cartTotal;
     private int totalAfterDiscount;
 
+    // 동시에 고친 장바구니를 덮어쓰지 않게 (CartMutationLane 이 재시도한다)
+    @Version
+    private long version;
+
     @OneToOne(fetch=FetchType.EAGER, cascade=CascadeType.PERSIST, targetEntity=User.class)
     @JoinColumn(name="user_id", referencedColumnName = "user_id", nullable = false)
     private User user;
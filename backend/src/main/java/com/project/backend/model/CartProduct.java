@@ -38,6 +38,10 @@ public class CartProduct extends BaseEntity {
 
     private String size;
 
+    // 저장 시점의 product_size id, 결제 때 가격 엔진 조회용 (이전 행은 null)
+    @Column(name = "size_id")
+    private Long sizeId;
+
     private int style;
 
     private int qty;
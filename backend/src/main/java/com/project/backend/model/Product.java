@@ -15,12 +15,17 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.Getter;
@@ -28,10 +33,24 @@ import lombok.Setter;
 
 
 @Entity
+// 상세 조회용: bag은 하나만 fetch join 하고 (sku_products) 나머지 컬렉션은
+// hibernate.default_batch_fetch_size로 한 번에 IN 조회한다
+@NamedEntityGraph(name = "Product.detail",
+        attributeNodes = {
+                @NamedAttributeNode("category"),
+                @NamedAttributeNode(value = "sku_products", subgraph = "sku")
+        },
+        subgraphs = @NamedSubgraph(name = "sku", attributeNodes = @NamedAttributeNode("color")))
 //@Data
 @Getter
 @Setter
-@Table(name="product")
+// 정렬 페이지는 (정렬 키, product_id) 인덱스를 거꾸로 읽어 keyset 에서 바로 시작한다
+@Table(name="product", indexes = {
+        @Index(name = "idx_product_sold_total", columnList = "sold_total, product_id"),
+        @Index(name = "idx_product_rating", columnList = "rating, product_id"),
+        @Index(name = "idx_product_min_price", columnList = "min_price, product_id"),
+        @Index(name = "idx_product_min_price_neg", columnList = "min_price_neg, product_id")
+})
 public class Product extends BaseEntity {
 
     @Id @Tsid          
@@ -76,8 +95,10 @@ public class Product extends BaseEntity {
     cascade = CascadeType.MERGE, targetEntity = ProductQA.class, orphanRemoval = true)    
     private List<ProductQA> questions;
 
+    // style 인덱스는 이 순서의 위치다 (SkuPricingService 의 findPricingRows 와 같은 순서)
     @OneToMany(mappedBy="product", fetch = FetchType.LAZY,
             cascade = CascadeType.PERSIST,targetEntity = ProductSku.class, orphanRemoval = true)
+    @OrderBy("skuproductId")
     private List<ProductSku> sku_products;
 
     @OneToMany(mappedBy="product", fetch = FetchType.LAZY,
@@ -90,10 +111,43 @@ public class Product extends BaseEntity {
 
     private String refund_policy = "30 days";
 
+    // 리뷰 집계: 평점 합계와 별점(1~5)별 개수, ReviewService가 UPDATE 한 번으로 갱신한다.
+    // 엔티티 save가 오래된 값으로 덮어쓰지 않도록 updatable = false
+    @Column(updatable = false)
     private float rating = 0F;
 
+    @Column(updatable = false)
     private int num_reviews = 0;
 
+    @Column(name = "rating_sum", updatable = false)
+    private double ratingSum = 0;
+
+    @Column(updatable = false)
+    private int star1 = 0;
+
+    @Column(updatable = false)
+    private int star2 = 0;
+
+    @Column(updatable = false)
+    private int star3 = 0;
+
+    @Column(updatable = false)
+    private int star4 = 0;
+
+    @Column(updatable = false)
+    private int star5 = 0;
+
     private int shipping = 0;
 
+    // 정렬 키: sku 판매량 합계와 사이즈 최저가 (가격 오름차순용으로 부호를 바꾼 값도),
+    // ProductRepository.refreshSortKeys / ProductSkuRepository.addSold 가 갱신한다
+    @Column(name = "sold_total", updatable = false)
+    private long soldTotal = 0;
+
+    @Column(name = "min_price", updatable = false)
+    private Integer minPrice;
+
+    @Column(name = "min_price_neg", updatable = false)
+    private Integer minPriceNeg;
+
 }
@@ -18,6 +18,7 @@ import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.Getter;
@@ -48,8 +49,10 @@ public class ProductSku extends BaseEntity {
     private int sold = 0;
 
     @JsonIgnore
+    // size 인덱스는 이 순서의 위치다 (SkuPricingService 의 findPricingRows 와 같은 순서)
     @OneToMany(mappedBy="sku_product", fetch = FetchType.LAZY,
             cascade = CascadeType.PERSIST,targetEntity = ProductSizeAttribute.class)
+    @OrderBy("sizeId")
     private List<ProductSizeAttribute> sizes;
 
     @OneToOne(fetch=FetchType.EAGER, cascade=CascadeType.PERSIST, targetEntity=ProductColorAttribute.class)
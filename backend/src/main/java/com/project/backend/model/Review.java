@@ -12,15 +12,24 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 
 @Data
 @Entity
-@Table(name="review")
+// 상품별 리뷰 페이지 (최신순/평점순/좋아요순) keyset 조회용 인덱스, 사용자당 상품 리뷰 하나
+@Table(name="review", indexes = {
+        @Index(name = "idx_review_product_created", columnList = "product_id, created_at"),
+        @Index(name = "idx_review_product_rating", columnList = "product_id, rating"),
+        @Index(name = "idx_review_product_likes", columnList = "product_id, like_count")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_review_product_user", columnNames = { "product_id", "user_id" })
+})
 public class Review extends BaseEntity{
     
     @Id @Tsid
@@ -39,6 +48,10 @@ public class Review extends BaseEntity{
     private List<String> images;
     private List<String> likes;
 
+    // 좋아요순 정렬용, likes와 함께 갱신한다
+    @Column(name = "like_count")
+    private int likeCount = 0;
+
     @OneToOne(fetch=FetchType.EAGER, cascade=CascadeType.PERSIST, targetEntity=ReviewStyle.class)
     @JoinColumn(name="rstyle_id", referencedColumnName = "rstyle_id", nullable = false)
     private ReviewStyle style;
@@ -0,0 +1,36 @@
+package com.project.backend.model;
+
+import io.hypersistence.utils.hibernate.id.Tsid;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 리뷰 좋아요 한 건, (review_id, user_id) 유일
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "review_like", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_review_like_review_user", columnNames = { "review_id", "user_id" })
+})
+public class ReviewLike extends BaseEntity {
+
+    @Id
+    @Tsid
+    @Column(name = "like_id")
+    private Long likeId;
+
+    @Column(name = "review_id", nullable = false)
+    private Long reviewId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+}
@@ -0,0 +1,55 @@
+package com.project.backend.model;
+
+import java.time.LocalDateTime;
+
+import com.project.backend.constants.ReservationStatus;
+
+import io.hypersistence.utils.hibernate.id.Tsid;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 주문 한 줄이 잡아 둔 product_size 재고, 결제되면 COMMITTED, 만료되면 RELEASED 로 돌려준다
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "stock_reservation", indexes = {
+        @Index(name = "idx_stock_reservation_order", columnList = "order_id"),
+        @Index(name = "idx_stock_reservation_status_expires", columnList = "status, expires_at")
+})
+public class StockReservation extends BaseEntity {
+
+    @Id
+    @Tsid
+    @Column(name = "reservation_id")
+    private Long reservationId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "size_id", nullable = false)
+    private Long sizeId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    private int qty;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ReservationStatus status;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+}
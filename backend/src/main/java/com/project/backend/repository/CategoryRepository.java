@@ -25,4 +25,8 @@ public interface CategoryRepository extends JpaRepository<ProductCategory, Long>
 
     @Query(value ="SELECT s FROM ProductCategory c INNER JOIN SubCategory s on c.categoryId = s.category.categoryId WHERE (:categoryId is null or c.categoryId = :categoryId)")    
     public List<SubCategory> findSubCategoriesByCategoryId(@Param("categoryId") Long categoryId);
+
+    // 자동완성용 (categoryId, categoryName, slug)
+    @Query("select c.categoryId, c.categoryName, c.slug from ProductCategory c")
+    public List<Object[]> findSuggestRows();
 }
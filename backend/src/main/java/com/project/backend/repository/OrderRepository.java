@@ -1,7 +1,9 @@
 package com.project.backend.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.project.backend.constants.OrderStatusEnum;
 import com.project.backend.constants.PaymentResultStatus;
 import com.project.backend.model.Order;
 
@@ -20,9 +23,28 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("Update Order o SET o.isPaid = :payStatus WHERE o.orderNumber = :orderNumber")
     int updateIsPaidByOrderNumber(@Param("orderNumber") String orderNumber, @Param("payStatus") Boolean payStatus);
 
+    // 상태가 from 일 때만 바꾼다
+    @Modifying
+    @Transactional
+    @Query("update Order o set o.orderStatus = :to where o.orderId = :orderId and o.orderStatus = :from")
+    int updateOrderStatus(@Param("orderId") Long orderId, @Param("from") OrderStatusEnum from,
+            @Param("to") OrderStatusEnum to);
+
+    @Query("select o.orderId from Order o where o.orderStatus = :status order by o.orderId")
+    List<Long> findIdsByOrderStatus(@Param("status") OrderStatusEnum status, Pageable pageable);
+
     Order findByUser_UserName(String email);
 
     Optional<Order> findByOrderNumber(String orderNumber);
     
     Optional<Order> findByOrderIdAndPaymentResult_PayStatus(Long orderId, PaymentResultStatus payStatus);
+
+    // 주문 내역 요약 (orderId, orderNumber, paymentMethod, payStatus, total, totalBeforeDiscount,
+    // couponApplied, isPaid, orderStatus, createdAt), 결제 상태 필터와 keyset 페이지를 SQL에서
+    @Query("select o.orderId, o.orderNumber, o.paymentMethod, pr.payStatus, o.total, o.totalBeforeDiscount, " +
+            "o.couponApplied, o.isPaid, o.orderStatus, o.createdAt from Order o left join o.paymentResult pr " +
+            "where o.user.userName = :userName and (:payStatus is null or pr.payStatus = :payStatus) " +
+            "and (:afterId is null or o.orderId < :afterId) order by o.orderId desc")
+    List<Object[]> findSummaryRows(@Param("userName") String userName,
+            @Param("payStatus") PaymentResultStatus payStatus, @Param("afterId") Long afterId, Pageable pageable);
 }
@@ -1,6 +1,11 @@
 package com.project.backend.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.project.backend.model.OrderedProduct;
@@ -8,4 +13,11 @@ import com.project.backend.model.OrderedProduct;
 @Repository
 public interface OrderedProductRepository extends JpaRepository<OrderedProduct, Long> {
 
+    // 주문 내역 요약용, 여러 주문의 줄을 한 번에
+    // (orderId, orderProductId, name, image, size, qty, price, colorId, color, colorImage)
+    @Query("select op.order.orderId, op.orderProductId, op.name, op.image, op.size, op.qty, op.price, " +
+            "c.colorId, c.color, c.colorImage from OrderedProduct op left join op.color c " +
+            "where op.order.orderId in :orderIds order by op.orderProductId")
+    List<Object[]> findSummaryRows(@Param("orderIds") Collection<Long> orderIds);
+
 }
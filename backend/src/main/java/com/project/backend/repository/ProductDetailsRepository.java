@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.project.backend.model.ProductDetails;
@@ -16,4 +17,9 @@ public interface ProductDetailsRepository extends JpaRepository<ProductDetails,
     
     @Query("select distinct d from ProductDetails d")
     List<ProductDetails> findDistinctAll();
+
+    // 검색 인덱스용 (productId, name, value)
+    @Query("select d.product.productId, d.name, d.value from ProductDetails d " +
+            "where (:productId is null or d.product.productId = :productId)")
+    List<Object[]> findSearchRows(@Param("productId") Long productId);
 }
@@ -1,6 +1,11 @@
 package com.project.backend.repository;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.project.backend.model.ProductQA;
@@ -9,4 +14,11 @@ import com.project.backend.model.ProductQA;
 @Repository
 public interface ProductQARepository extends JpaRepository<ProductQA, Long> {
 
+    long countByProduct_ProductId(Long productId);
+
+    // 상품 Q&A keyset 페이지 (qa_id desc, 최신순)
+    @Query("select q from ProductQA q where q.product.productId = :productId " +
+            "and (:afterId is null or q.qaId < :afterId) order by q.qaId desc")
+    List<ProductQA> findPage(@Param("productId") Long productId, @Param("afterId") Long afterId, Pageable pageable);
+
 }
@@ -1,5 +1,7 @@
 package com.project.backend.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,20 +14,106 @@ import com.project.backend.model.ProductDetails;
 import jakarta.transaction.Transactional;
 import jakarta.websocket.server.PathParam;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    @EntityGraph("Product.detail")
     public List<Product> findBySlug(String slug);
 
+    @EntityGraph("Product.detail")
     public List<Product> findByName(String name);
 
+    @EntityGraph("Product.detail")
+    @Query("select p from Product p where p.productId = :productId")
+    Optional<Product> findDetailById(@Param("productId") Long productId);
+
+    @EntityGraph("Product.detail")
+    @Query("select p from Product p where p.productId in :productIds")
+    List<Product> findDetailsByIdIn(@Param("productIds") List<Long> productIds);
+
+    // 검색 인덱스용 (productId, categoryId, name, brand, rating)
+    @Query("select p.productId, p.category.categoryId, p.name, p.brand, p.rating from Product p " +
+            "where (:productId is null or p.productId = :productId)")
+    List<Object[]> findSearchRows(@Param("productId") Long productId);
+
+    // 변경 알림용 (productId, categoryId)
+    @Query("select p.productId, c.categoryId from Product p left join p.category c where p.productId in :productIds")
+    List<Object[]> findCategoryRows(@Param("productIds") Collection<Long> productIds);
+
+    // 검색 인덱스용 (productId, subcategoryId)
+    @Query("select p.productId, s.subcategoryId from Product p join p.subCategories s " +
+            "where (:productId is null or p.productId = :productId)")
+    List<Object[]> findSubCategoryRows(@Param("productId") Long productId);
+
+    // 자동완성용 (productId, name, slug, brand, categoryId, sold 합계)
+    @Query("select p.productId, p.name, p.slug, p.brand, c.categoryId, coalesce(sum(s.sold), 0) " +
+            "from Product p left join p.category c left join p.sku_products s " +
+            "where (:productId is null or p.productId = :productId) " +
+            "group by p.productId, p.name, p.slug, p.brand, c.categoryId")
+    List<Object[]> findSuggestRows(@Param("productId") Long productId);
+
     @Transactional
     @Modifying
     @Query("Update Product p Set p.rating = :rating WHERE p.productId = :productId")
     int updateRating(@Param("productId") Long id, @Param("rating") float rating);
 
+    // 리뷰 추가/수정/삭제분만큼 집계를 옮긴다. rating은 이전 값 기준으로 먼저 계산해야 한다 (MySQL은 SET을 왼쪽부터 적용)
+    // 별점 개수 합이 num_reviews 와 다르면 (집계 컬럼 추가 전 데이터) 바꾸지 않는다: 0 이면 재집계
+    @Transactional
+    @Modifying
+    @Query("Update Product p Set " +
+            "p.rating = case when p.num_reviews + :countDelta > 0 " +
+            "then (p.ratingSum + :sumDelta) / (p.num_reviews + :countDelta) else 0 end, " +
+            "p.ratingSum = p.ratingSum + :sumDelta, p.num_reviews = p.num_reviews + :countDelta, " +
+            "p.star1 = p.star1 + :d1, p.star2 = p.star2 + :d2, p.star3 = p.star3 + :d3, " +
+            "p.star4 = p.star4 + :d4, p.star5 = p.star5 + :d5 " +
+            "WHERE p.productId = :productId and p.num_reviews + :countDelta >= 0 " +
+            "and p.num_reviews = p.star1 + p.star2 + p.star3 + p.star4 + p.star5")
+    int applyReviewDelta(@Param("productId") Long id, @Param("sumDelta") double sumDelta,
+            @Param("countDelta") int countDelta, @Param("d1") int d1, @Param("d2") int d2, @Param("d3") int d3,
+            @Param("d4") int d4, @Param("d5") int d5);
+
+    // 관리자 재집계: review 테이블에서 한 번에 다시 계산한다
+    @Transactional
+    @Modifying
+    @Query(value = "update product p left join (" +
+            "select product_id, count(*) c, sum(rating) s, " +
+            "sum(least(greatest(floor(rating + 0.5), 1), 5) = 1) s1, " +
+            "sum(least(greatest(floor(rating + 0.5), 1), 5) = 2) s2, " +
+            "sum(least(greatest(floor(rating + 0.5), 1), 5) = 3) s3, " +
+            "sum(least(greatest(floor(rating + 0.5), 1), 5) = 4) s4, " +
+            "sum(least(greatest(floor(rating + 0.5), 1), 5) = 5) s5 " +
+            "from review group by product_id) r on p.product_id = r.product_id " +
+            "set p.num_reviews = coalesce(r.c, 0), p.rating_sum = coalesce(r.s, 0), " +
+            "p.rating = coalesce(r.s / r.c, 0), " +
+            "p.star1 = coalesce(r.s1, 0), p.star2 = coalesce(r.s2, 0), p.star3 = coalesce(r.s3, 0), " +
+            "p.star4 = coalesce(r.s4, 0), p.star5 = coalesce(r.s5, 0)", nativeQuery = true)
+    int reconcileReviewAggregates();
+
+    // 위와 같되 상품 하나, 또는 별점 개수가 num_reviews 와 맞지 않는 상품만 (:productId null)
+    @Transactional
+    @Modifying
+    @Query(value = "update product p left join (" +
+            "select product_id, count(*) c, sum(rating) s, " +
+            "sum(least(greatest(floor(rating + 0.5), 1), 5) = 1) s1, " +
+            "sum(least(greatest(floor(rating + 0.5), 1), 5) = 2) s2, " +
+            "sum(least(greatest(floor(rating + 0.5), 1), 5) = 3) s3, " +
+            "sum(least(greatest(floor(rating + 0.5), 1), 5) = 4) s4, " +
+            "sum(least(greatest(floor(rating + 0.5), 1), 5) = 5) s5 " +
+            "from review where (:productId is null or product_id = :productId) " +
+            "group by product_id) r on p.product_id = r.product_id " +
+            "set p.num_reviews = coalesce(r.c, 0), p.rating_sum = coalesce(r.s, 0), " +
+            "p.rating = coalesce(r.s / r.c, 0), " +
+            "p.star1 = coalesce(r.s1, 0), p.star2 = coalesce(r.s2, 0), p.star3 = coalesce(r.s3, 0), " +
+            "p.star4 = coalesce(r.s4, 0), p.star5 = coalesce(r.s5, 0) " +
+            "where (:productId is null and p.num_reviews <> p.star1 + p.star2 + p.star3 + p.star4 + p.star5) " +
+            "or p.product_id = :productId", nativeQuery = true)
+    int reconcileReviewAggregatesOf(@Param("productId") Long productId);
+
     @Query(value = "select a.product_id from product a inner join category b  where (:categoryRegexp is null or b.category_name REGEXP :categoryRegexp)", nativeQuery = true)
     public List<Long> findProductIDsByCategoryName(@Param("categoryRegexp") String categoryRegexp);
 
@@ -52,6 +140,129 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             @Param("gender") String gender, @Param("rating") Integer rating,
             @Param("productIds") List<Long> productIds);
 
+    @Query(value = "select distinct a.product_id from product a " +
+            "left join product_details b on a.product_id = b.product_id " +
+            "where (:name is null or a.name REGEXP :name) " +
+            "AND a.product_id in :productIds " +
+            "AND (:categoryId is null or a.category_id = :categoryId) " +
+            "AND (:brand is null or a.brand REGEXP :brand) " +
+            "AND ((:style is null AND :material is null AND :gender is null) or ( REGEXP_LIKE(b.value, :material) or REGEXP_LIKE(b.value, :style) or REGEXP_LIKE(b.value, :gender)) )"
+            +
+            "AND (:rating is null or a.rating >= :rating) " +
+            "AND (:afterId is null or a.product_id < :afterId) " +
+            "order by a.product_id desc " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<Long> findProductIdsBySearchParams(@Param("name") String name, @Param("categoryId") Long categoryId,
+            @Param("style") String style, @Param("brand") String brand, @Param("material") String material,
+            @Param("gender") String gender, @Param("rating") Integer rating,
+            @Param("productIds") List<Long> productIds, @Param("afterId") Long afterId,
+            @Param("limit") int limit, @Param("offset") long offset);
+
+    // 목록 요약용 (productId, name, slug, brand, rating, num_reviews)
+    @Query("select p.productId, p.name, p.slug, p.brand, p.rating, p.num_reviews from Product p " +
+            "where p.productId in :productIds")
+    List<Object[]> findSummaryRows(@Param("productIds") List<Long> productIds);
+
+    // 관리자 상품 목록 keyset 페이지 (product_id desc)
+    @Query("select p from Product p where (:afterId is null or p.productId < :afterId) order by p.productId desc")
+    List<Product> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // 정렬 페이지의 검색 조건. 사이즈/가격/색상 조건도 상품마다 EXISTS 로 보므로 id 목록을 넘기지 않는다
+    String RANKED_FROM = "from product a " +
+            "where (:name is null or a.name REGEXP :name) " +
+            "AND (:categoryId is null or a.category_id = :categoryId) " +
+            "AND (:brand is null or a.brand REGEXP :brand) " +
+            "AND ((:style is null AND :material is null AND :gender is null) or exists (select 1 from product_details b " +
+            "where b.product_id = a.product_id and (REGEXP_LIKE(b.value, :material) or REGEXP_LIKE(b.value, :style) " +
+            "or REGEXP_LIKE(b.value, :gender)))) " +
+            "AND (:rating is null or a.rating >= :rating) " +
+            "AND exists (select 1 from product_sku s left join product_size z on s.skuproduct_id = z.skuproduct_id " +
+            "left join product_color c on s.color_id = c.color_id where s.product_id = a.product_id " +
+            "and ((:lowPrice is null or :highPrice is null) or z.price between :lowPrice and :highPrice) " +
+            "and (:size is null or z.size REGEXP :size) and (:color is null or c.color REGEXP :color)) ";
+
+    /*
+     * 정렬 페이지 (product_id, 정렬 키): 키가 클수록, 같으면 product_id 가 클수록 앞, 키가 없는 상품은 맨 뒤.
+     * 키는 product 에 저장된 컬럼이라 (키, product_id) 인덱스를 거꾸로 읽으며 커서 다음 행부터
+     * 조건을 확인하고 LIMIT 에서 멈춘다. 조건에 맞는 상품이 드물면 그만큼 더 읽는다.
+     * 커서가 키 없는 구간에 있으면 afterKey 는 null.
+     */
+    // 판매량순
+    @Query(value = "select a.product_id, a.sold_total " + RANKED_FROM +
+            "AND (:afterId is null " +
+            "or (:afterKey is null and a.sold_total is null and a.product_id < :afterId) " +
+            "or (:afterKey is not null and (a.sold_total < :afterKey " +
+            "or (a.sold_total = :afterKey and a.product_id < :afterId) or a.sold_total is null))) " +
+            "order by a.sold_total desc, a.product_id desc " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<Object[]> findBestSellingPage(@Param("name") String name, @Param("categoryId") Long categoryId,
+            @Param("style") String style, @Param("brand") String brand, @Param("material") String material,
+            @Param("gender") String gender, @Param("rating") Integer rating,
+            @Param("lowPrice") Integer lowPrice, @Param("highPrice") Integer highPrice,
+            @Param("size") String size, @Param("color") String color,
+            @Param("afterKey") Double afterKey, @Param("afterId") Long afterId,
+            @Param("limit") int limit, @Param("offset") long offset);
+
+    // 평점순
+    @Query(value = "select a.product_id, a.rating " + RANKED_FROM +
+            "AND (:afterId is null " +
+            "or (:afterKey is null and a.rating is null and a.product_id < :afterId) " +
+            "or (:afterKey is not null and (a.rating < :afterKey " +
+            "or (a.rating = :afterKey and a.product_id < :afterId) or a.rating is null))) " +
+            "order by a.rating desc, a.product_id desc " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<Object[]> findTopRatedPage(@Param("name") String name, @Param("categoryId") Long categoryId,
+            @Param("style") String style, @Param("brand") String brand, @Param("material") String material,
+            @Param("gender") String gender, @Param("rating") Integer rating,
+            @Param("lowPrice") Integer lowPrice, @Param("highPrice") Integer highPrice,
+            @Param("size") String size, @Param("color") String color,
+            @Param("afterKey") Double afterKey, @Param("afterId") Long afterId,
+            @Param("limit") int limit, @Param("offset") long offset);
+
+    // 가격 높은순
+    @Query(value = "select a.product_id, a.min_price " + RANKED_FROM +
+            "AND (:afterId is null " +
+            "or (:afterKey is null and a.min_price is null and a.product_id < :afterId) " +
+            "or (:afterKey is not null and (a.min_price < :afterKey " +
+            "or (a.min_price = :afterKey and a.product_id < :afterId) or a.min_price is null))) " +
+            "order by a.min_price desc, a.product_id desc " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<Object[]> findPriceDescPage(@Param("name") String name, @Param("categoryId") Long categoryId,
+            @Param("style") String style, @Param("brand") String brand, @Param("material") String material,
+            @Param("gender") String gender, @Param("rating") Integer rating,
+            @Param("lowPrice") Integer lowPrice, @Param("highPrice") Integer highPrice,
+            @Param("size") String size, @Param("color") String color,
+            @Param("afterKey") Double afterKey, @Param("afterId") Long afterId,
+            @Param("limit") int limit, @Param("offset") long offset);
+
+    // 가격 낮은순 (min_price_neg = -min_price)
+    @Query(value = "select a.product_id, a.min_price_neg " + RANKED_FROM +
+            "AND (:afterId is null " +
+            "or (:afterKey is null and a.min_price_neg is null and a.product_id < :afterId) " +
+            "or (:afterKey is not null and (a.min_price_neg < :afterKey " +
+            "or (a.min_price_neg = :afterKey and a.product_id < :afterId) or a.min_price_neg is null))) " +
+            "order by a.min_price_neg desc, a.product_id desc " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<Object[]> findPriceAscPage(@Param("name") String name, @Param("categoryId") Long categoryId,
+            @Param("style") String style, @Param("brand") String brand, @Param("material") String material,
+            @Param("gender") String gender, @Param("rating") Integer rating,
+            @Param("lowPrice") Integer lowPrice, @Param("highPrice") Integer highPrice,
+            @Param("size") String size, @Param("color") String color,
+            @Param("afterKey") Double afterKey, @Param("afterId") Long afterId,
+            @Param("limit") int limit, @Param("offset") long offset);
+
+    // 정렬 키를 sku/사이즈에서 다시 계산한다. productId 가 null 이면 아직 계산되지 않은 상품만
+    // (MySQL 은 SET 을 왼쪽부터 적용하므로 min_price_neg 는 새 min_price 로 계산된다)
+    @Transactional
+    @Modifying
+    @Query(value = "update product a set " +
+            "a.sold_total = coalesce((select sum(s.sold) from product_sku s where s.product_id = a.product_id), 0), " +
+            "a.min_price = (select min(z.price) from product_sku s inner join product_size z " +
+            "on s.skuproduct_id = z.skuproduct_id where s.product_id = a.product_id), " +
+            "a.min_price_neg = -a.min_price " +
+            "where (:productId is null and a.min_price is null) or a.product_id = :productId", nativeQuery = true)
+    int refreshSortKeys(@Param("productId") Long productId);
+
     @Query(value = "select count(distinct a.product_id) from product a " +
             "left join product_details b on a.product_id = b.product_id " +
             "where (:name is null or a.name REGEXP :name)" +
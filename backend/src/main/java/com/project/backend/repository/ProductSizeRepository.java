@@ -0,0 +1,34 @@
+package com.project.backend.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.project.backend.model.ProductSizeAttribute;
+
+@Repository
+public interface ProductSizeRepository extends JpaRepository<ProductSizeAttribute, Long> {
+
+    // 재고가 충분할 때만 차감, 0 이면 재고 부족
+    @Transactional
+    @Modifying
+    @Query(value = "update product_size set quantity = quantity - :qty where size_id = :sizeId and quantity >= :qty",
+            nativeQuery = true)
+    int reserve(@Param("sizeId") Long sizeId, @Param("qty") int qty);
+
+    // 예약 반환(+) 이나 플래시 세일 차감분 반영(-)
+    @Transactional
+    @Modifying
+    @Query(value = "update product_size set quantity = quantity + :delta where size_id = :sizeId", nativeQuery = true)
+    int addQuantity(@Param("sizeId") Long sizeId, @Param("delta") int delta);
+
+    // 플래시 세일 재고 적재용 (sizeId, quantity)
+    @Query("select z.sizeId, z.quantity from ProductSizeAttribute z where z.sku_product.skuproductId = :skuId")
+    List<Object[]> findStockRows(@Param("skuId") Long skuId);
+
+}
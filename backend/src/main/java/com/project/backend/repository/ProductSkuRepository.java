@@ -1,13 +1,16 @@
 package com.project.backend.repository;
 
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 
 import com.project.backend.model.ProductSku;
@@ -16,7 +19,7 @@ import com.project.backend.model.ProductSku;
 public interface ProductSkuRepository extends JpaRepository<ProductSku, Long> {
 
     
-    @Query(value = "select product_id from product_sku a " +
+    @Query(value = "select distinct product_id from product_sku a " +
     "left join product_size b on a.skuproduct_id = b.skuproduct_id " +
     "left join product_color c on a.color_id = c.color_id " +
     "where ((:low_price is null or :high_price is null ) or b.price between :low_price and :high_price) and (:size is null or b.size REGEXP :size)" +
@@ -24,6 +27,47 @@ public interface ProductSkuRepository extends JpaRepository<ProductSku, Long> {
     List<Long> findProductIDBySizeAndPriceAndColor(@Param("low_price") Integer lowPrice, @Param("high_price") Integer highPrice,
     @Param("size") String size, @Param("color") String color);
 
+    // 검색 인덱스용 (productId, sizeId, size, price, color)
+    @Query("select s.product.productId, z.sizeId, z.size, z.price, c.color from ProductSku s " +
+    "left join s.sizes z left join s.color c " +
+    "where (:productId is null or s.product.productId = :productId)")
+    List<Object[]> findSearchRows(@Param("productId") Long productId);
+
+    // 목록 요약용 (productId, 최저가, 최고가)
+    @Query("select s.product.productId, min(z.price), max(z.price) from ProductSku s left join s.sizes z " +
+    "where s.product.productId in :productIds group by s.product.productId")
+    List<Object[]> findPriceRangeRows(@Param("productIds") List<Long> productIds);
+
+    // 목록 요약용 (productId, images, discount), 상품별 첫 sku가 먼저 온다
+    @Query("select s.product.productId, s.images, s.discount from ProductSku s " +
+    "where s.product.productId in :productIds order by s.skuproductId")
+    List<Object[]> findImageRows(@Param("productIds") List<Long> productIds);
+
+    // 장바구니 가격 계산용, sku는 상품 목록 순서(style), size는 sku 안의 순서대로 온다
+    // (skuId, sku, discount, images, colorId, color, colorImage, sizeId, size, price, quantity, name, shipping)
+    @Query("select s.skuproductId, s.sku, s.discount, s.images, c.colorId, c.color, c.colorImage, " +
+    "z.sizeId, z.size, z.price, z.quantity, p.name, p.shipping from ProductSku s " +
+    "join s.product p left join s.color c left join s.sizes z " +
+    "where p.productId = :productId order by s.skuproductId, z.sizeId")
+    List<Object[]> findPricingRows(@Param("productId") Long productId);
+
+    // 장바구니 여러 상품을 한 번에, 위와 같은 열 뒤에 productId
+    @Query("select s.skuproductId, s.sku, s.discount, s.images, c.colorId, c.color, c.colorImage, " +
+    "z.sizeId, z.size, z.price, z.quantity, p.name, p.shipping, p.productId from ProductSku s " +
+    "join s.product p left join s.color c left join s.sizes z " +
+    "where p.productId in :productIds order by p.productId, s.skuproductId, z.sizeId")
+    List<Object[]> findPricingRowsIn(@Param("productIds") Collection<Long> productIds);
+
+    // 가격 엔진용 (productId, sizeId, price, discount)
+    @Query("select s.product.productId, z.sizeId, z.price, s.discount from ProductSku s join s.sizes z " +
+    "where (:productId is null or s.product.productId = :productId)")
+    List<Object[]> findPriceRows(@Param("productId") Long productId);
+
+    // 검색 인덱스용 (productId, sold 합계)
+    @Query("select s.product.productId, sum(s.sold) from ProductSku s " +
+    "where (:productId is null or s.product.productId = :productId) group by s.product.productId")
+    List<Object[]> findSoldRows(@Param("productId") Long productId);
+
     List<ProductSku> findBySizesPriceBetweenAndSizesSizeAndColorColor(@Param("low_price") Integer lowPrice, @Param("high_price") Integer highPrice,
     @Param("size") String size, @Param("color") String color);
 
@@ -46,4 +90,12 @@ public interface ProductSkuRepository extends JpaRepository<ProductSku, Long> {
     "inner join product_size b " +
     "where a.product_id in :productIds and b.size <> '' and b.size is not null", nativeQuery =  true)
     List<String> findSizesByProductId(@Param("productIds") List<Long> productIds);
+
+    // 결제된 예약만큼 사이즈가 속한 sku 의 판매 수량과 상품의 정렬 키(sold_total)를 올린다
+    @Transactional
+    @Modifying
+    @Query(value = "update product_sku s join product_size z on z.skuproduct_id = s.skuproduct_id " +
+    "join product p on p.product_id = s.product_id " +
+    "set s.sold = s.sold + :qty, p.sold_total = p.sold_total + :qty where z.size_id = :sizeId", nativeQuery = true)
+    int addSold(@Param("sizeId") Long sizeId, @Param("qty") int qty);
 }
@@ -0,0 +1,27 @@
+package com.project.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.project.backend.model.ReviewLike;
+
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface ReviewLikeRepository extends JpaRepository<ReviewLike, Long> {
+
+    boolean existsByReviewIdAndUserId(Long reviewId, Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ReviewLike l where l.reviewId = :reviewId and l.userId = :userId")
+    int deleteByReviewIdAndUserId(@Param("reviewId") Long reviewId, @Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ReviewLike l where l.reviewId = :reviewId")
+    int deleteByReviewId(@Param("reviewId") Long reviewId);
+}
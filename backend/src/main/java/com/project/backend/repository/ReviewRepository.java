@@ -1,6 +1,12 @@
 package com.project.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,6 +14,7 @@ import org.springframework.stereotype.Repository;
 
 import com.project.backend.model.Review;
 
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 
 @Repository
@@ -18,4 +25,44 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Modifying
     @Query("delete from Review where reviewId = :id")
     void deleteById(@Param("id") Long id);
+
+    // 좋아요 카운터 배치 반영용, 트랜잭션은 호출하는 쪽에서 묶는다
+    @Modifying
+    @Query("update Review r set r.likeCount = r.likeCount + :delta where r.reviewId = :reviewId")
+    int addLikeCount(@Param("reviewId") Long reviewId, @Param("delta") int delta);
+
+    @Query("select r.likeCount from Review r where r.reviewId = :reviewId")
+    Integer findLikeCount(@Param("reviewId") Long reviewId);
+
+    Optional<Review> findByProduct_ProductIdAndReviewedBy_UserId(Long productId, Long userId);
+
+    // 수정/삭제용, 트랜잭션 끝까지 행을 잠가 빼는 이전 평점이 덮어쓰는 리뷰의 평점이 되게 한다
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Review r where r.product.productId = :productId and r.reviewedBy.userId = :userId")
+    Optional<Review> findForUpdate(@Param("productId") Long productId, @Param("userId") Long userId);
+
+    // 최신순 keyset 페이지 (product_id, created_at 인덱스)
+    @Query("select r from Review r where r.product.productId = :productId " +
+            "and (:afterCreatedAt is null or r.createdAt < :afterCreatedAt " +
+            "or (r.createdAt = :afterCreatedAt and r.reviewId < :afterId)) " +
+            "order by r.createdAt desc, r.reviewId desc")
+    List<Review> findNewestPage(@Param("productId") Long productId,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // 평점순 keyset 페이지
+    @Query("select r from Review r where r.product.productId = :productId " +
+            "and (:afterRating is null or r.rating < :afterRating " +
+            "or (r.rating = :afterRating and r.reviewId < :afterId)) " +
+            "order by r.rating desc, r.reviewId desc")
+    List<Review> findTopRatedPage(@Param("productId") Long productId,
+            @Param("afterRating") Float afterRating, @Param("afterId") Long afterId, Pageable pageable);
+
+    // 좋아요순 keyset 페이지
+    @Query("select r from Review r where r.product.productId = :productId " +
+            "and (:afterLikes is null or r.likeCount < :afterLikes " +
+            "or (r.likeCount = :afterLikes and r.reviewId < :afterId)) " +
+            "order by r.likeCount desc, r.reviewId desc")
+    List<Review> findMostLikedPage(@Param("productId") Long productId,
+            @Param("afterLikes") Integer afterLikes, @Param("afterId") Long afterId, Pageable pageable);
 }
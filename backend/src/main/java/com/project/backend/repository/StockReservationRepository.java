@@ -0,0 +1,43 @@
+package com.project.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.project.backend.constants.ReservationStatus;
+import com.project.backend.model.StockReservation;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByOrderId(Long orderId);
+
+    // 결제된 주문의 예약은 만료돼도 돌려주지 않는다
+    @Query("select r from StockReservation r where r.status = :status and r.expiresAt < :now " +
+            "and not exists (select o.orderId from Order o where o.orderId = r.orderId and o.isPaid = true) " +
+            "order by r.expiresAt")
+    List<StockReservation> findExpired(@Param("status") ReservationStatus status, @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    // 결제와 만료 처리가 겹쳐도 한쪽만 상태를 바꾼다 (바뀐 행 수 0 이면 진 쪽)
+    @Transactional
+    @Modifying
+    @Query("update StockReservation r set r.status = :to where r.reservationId = :id and r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+
+    // 만료 처리용 transition: 그 사이 주문이 결제됐으면 (재고 확정이 미뤄졌어도) 바꾸지 않는다
+    @Transactional
+    @Modifying
+    @Query("update StockReservation r set r.status = :to where r.reservationId = :id and r.status = :from " +
+            "and not exists (select o.orderId from Order o where o.orderId = r.orderId and o.isPaid = true)")
+    int transitionUnpaid(@Param("id") Long id, @Param("from") ReservationStatus from,
+            @Param("to") ReservationStatus to);
+
+}
@@ -22,4 +22,8 @@ public interface  SubCategoryRepository extends JpaRepository<SubCategory, Long>
     
 
     List<SubCategory> findAll();
+
+    // 자동완성용 (subcategoryId, subcategoryName, slug) - products EAGER 로딩을 피한다
+    @Query("select s.subcategoryId, s.subcategoryName, s.slug from SubCategory s")
+    List<Object[]> findSuggestRows();
 }
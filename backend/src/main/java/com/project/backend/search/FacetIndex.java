@@ -0,0 +1,190 @@
+package com.project.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One bitmap of product ordinals per facet value. Ordinals are dense, so a
+ * {@link BitSet} costs one bit per product per value.
+ * Not thread-safe; {@link ProductSearchIndex} guards access.
+ */
+public class FacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String SUBCATEGORY = "subcategory";
+    public static final String BRAND = "brand";
+    public static final String COLOR = "color";
+    public static final String SIZE = "size";
+    public static final String PRICE = "price";
+    public static final String DETAIL_PREFIX = "detail:";
+
+    private final int[] priceBounds;
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+
+    private long[] productIds = new long[1024];
+
+    private int nextOrdinal = 0;
+
+    // facet -> value -> ordinals
+    private final Map<String, Map<String, BitSet>> facets = new TreeMap<>();
+
+    // ordinal -> bitmaps it is set in, for removal
+    private final Map<Integer, List<BitSet>> memberships = new HashMap<>();
+
+    public FacetIndex(int[] priceBounds) {
+        this.priceBounds = priceBounds.clone();
+        Arrays.sort(this.priceBounds);
+    }
+
+    public void add(ProductDocument doc) {
+
+        int ordinal = ordinals.computeIfAbsent(doc.getProductId(), id -> assignOrdinal(id));
+
+        if (doc.getCategoryId() != null)
+            set(ordinal, CATEGORY, Long.toString(doc.getCategoryId()));
+
+        doc.getSubCategoryIds().forEach(id -> set(ordinal, SUBCATEGORY, Long.toString(id)));
+
+        set(ordinal, BRAND, doc.getBrand());
+
+        for (ProductDocument.Detail detail : doc.getDetails()) {
+            if (detail.getName() != null)
+                set(ordinal, DETAIL_PREFIX + detail.getName(), detail.getValue());
+        }
+
+        for (ProductDocument.Variant v : doc.getVariants()) {
+            set(ordinal, COLOR, v.getColor());
+            if (v.getSize() != null && !v.getSize().isEmpty())
+                set(ordinal, SIZE, v.getSize());
+            if (v.getPrice() != null)
+                set(ordinal, PRICE, priceBucket(v.getPrice()));
+        }
+    }
+
+    public void remove(long productId) {
+
+        Integer ordinal = ordinals.get(productId);
+        if (ordinal == null)
+            return;
+
+        List<BitSet> bitmaps = memberships.remove(ordinal);
+        if (bitmaps != null)
+            bitmaps.forEach(bits -> bits.clear(ordinal));
+    }
+
+    public void clear() {
+        ordinals.clear();
+        facets.clear();
+        memberships.clear();
+        nextOrdinal = 0;
+    }
+
+    public BitSet toBitSet(Collection<Long> ids) {
+
+        BitSet bits = new BitSet(nextOrdinal);
+        for (Long id : ids) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal != null)
+                bits.set(ordinal);
+        }
+        return bits;
+    }
+
+    public List<Long> toIds(BitSet bits) {
+
+        List<Long> ids = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            ids.add(productIds[i]);
+        }
+        return ids;
+    }
+
+    // 값이 없으면 빈 비트맵
+    public BitSet bitmap(String facet, String value) {
+
+        BitSet bits = facets.getOrDefault(facet, Map.of()).get(value);
+        return bits != null ? (BitSet) bits.clone() : new BitSet();
+    }
+
+    /**
+     * Facet values that intersect {@code scope} (all products when null),
+     * with their counts, most frequent first.
+     */
+    public Map<String, Map<String, Integer>> count(BitSet scope) {
+
+        Map<String, Map<String, Integer>> result = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Map<String, BitSet>> facet : facets.entrySet()) {
+
+            List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+            for (Map.Entry<String, BitSet> value : facet.getValue().entrySet()) {
+
+                int count;
+                if (scope == null) {
+                    count = value.getValue().cardinality();
+                } else {
+                    BitSet and = (BitSet) value.getValue().clone();
+                    and.and(scope);
+                    count = and.cardinality();
+                }
+
+                if (count > 0)
+                    counts.add(Map.entry(value.getKey(), count));
+            }
+
+            if (counts.isEmpty())
+                continue;
+
+            counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            Map<String, Integer> values = new LinkedHashMap<>();
+            counts.forEach(e -> values.put(e.getKey(), e.getValue()));
+            result.put(facet.getKey(), values);
+        }
+
+        return result;
+    }
+
+    String priceBucket(int price) {
+
+        for (int i = priceBounds.length - 1; i >= 0; i--) {
+            if (price >= priceBounds[i]) {
+                return i + 1 < priceBounds.length
+                        ? priceBounds[i] + "-" + priceBounds[i + 1]
+                        : priceBounds[i] + "+";
+            }
+        }
+        return "0-" + (priceBounds.length > 0 ? priceBounds[0] : 0);
+    }
+
+    private int assignOrdinal(long productId) {
+
+        if (nextOrdinal == productIds.length)
+            productIds = Arrays.copyOf(productIds, productIds.length * 2);
+
+        productIds[nextOrdinal] = productId;
+        return nextOrdinal++;
+    }
+
+    private void set(int ordinal, String facet, String value) {
+
+        if (value == null)
+            return;
+
+        BitSet bits = facets.computeIfAbsent(facet, f -> new HashMap<>()).computeIfAbsent(value, v -> new BitSet());
+
+        if (!bits.get(ordinal)) {
+            bits.set(ordinal);
+            memberships.computeIfAbsent(ordinal, o -> new ArrayList<>()).add(bits);
+        }
+    }
+}
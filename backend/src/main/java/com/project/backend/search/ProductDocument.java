@@ -0,0 +1,73 @@
+package com.project.backend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Flattened view of a product used by the in-memory search index.
+ */
+@Getter
+@Setter
+public class ProductDocument {
+
+    private final long productId;
+
+    private Long categoryId;
+
+    private String name;
+
+    private String brand;
+
+    private float rating;
+
+    // sku 판매량 합계 (best-selling 정렬용)
+    private long sold;
+
+    private final List<Long> subCategoryIds = new ArrayList<>();
+
+    private final List<Detail> details = new ArrayList<>();
+
+    private final List<Variant> variants = new ArrayList<>();
+
+    // 가장 낮은 사이즈 가격, 없으면 null
+    public Integer getMinPrice() {
+
+        Integer min = null;
+        for (Variant v : variants) {
+            if (v.getPrice() != null && (min == null || v.getPrice() < min))
+                min = v.getPrice();
+        }
+        return min;
+    }
+
+    public ProductDocument(long productId) {
+        this.productId = productId;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Detail {
+
+        private final String name;
+
+        private final String value;
+    }
+
+    // product_size 한 행 (sku 색상 포함)
+    @Getter
+    @AllArgsConstructor
+    public static class Variant {
+
+        private final Long sizeId;
+
+        private final String size;
+
+        private final Integer price;
+
+        private final String color;
+    }
+}
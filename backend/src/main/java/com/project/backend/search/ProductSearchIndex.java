@@ -0,0 +1,394 @@
+package com.project.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.project.backend.dto.FacetValueDTO;
+import com.project.backend.dto.ProductDetailDTO;
+import com.project.backend.event.ProductChangedEvent;
+import com.project.backend.repository.ProductDetailsRepository;
+import com.project.backend.repository.ProductRepository;
+import com.project.backend.repository.ProductSkuRepository;
+import com.project.backend.security.request.SearchParamsRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional in-process replacement for the REGEXP search queries.
+ * Enabled with {@code search.index.enabled=true}; built once at startup and
+ * kept current from {@link ProductChangedEvent}s.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private final ProductRepository productRepository;
+
+    private final ProductSkuRepository productSkuRepository;
+
+    private final ProductDetailsRepository productDetailsRepository;
+
+    private final VariantPriceIndex variantPriceIndex;
+
+    @Value("${search.index.enabled:false}")
+    private boolean enabled;
+
+    private volatile boolean ready = false;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, ProductDocument> documents = new HashMap<>();
+
+    private final Map<Long, Set<Long>> categories = new HashMap<>();
+
+    private final TermIndex names = new TermIndex();
+
+    private final TermIndex brands = new TermIndex();
+
+    private final TermIndex details = new TermIndex();
+
+    private FacetIndex facets;
+
+    @Value("${search.facet.price-bounds:0,10000,30000,50000,100000,300000}")
+    private int[] priceBounds;
+
+    public ProductSearchIndex(ProductRepository productRepository, ProductSkuRepository productSkuRepository,
+            ProductDetailsRepository productDetailsRepository, VariantPriceIndex variantPriceIndex) {
+        this.productRepository = productRepository;
+        this.productSkuRepository = productSkuRepository;
+        this.productDetailsRepository = productDetailsRepository;
+        this.variantPriceIndex = variantPriceIndex;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+
+        if (!enabled)
+            return;
+
+        Collection<ProductDocument> loaded = loadDocuments(null);
+
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            categories.clear();
+            names.clear();
+            brands.clear();
+            details.clear();
+            facets = new FacetIndex(priceBounds);
+
+            loaded.forEach(this::add);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Product search index built: " + loaded.size() + " products");
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+
+        // 문서에 재고/판매량이 없으므로 재고 변경은 건너뛴다
+        if (!isReady() || event.isStockOnly())
+            return;
+
+        // 카탈로그 전체 변경 (리뷰 재집계 등)은 다시 만든다
+        if (event.getProductId() == null) {
+            build();
+            return;
+        }
+
+        reindex(event.getProductId());
+    }
+
+    public void reindex(Long productId) {
+
+        Collection<ProductDocument> loaded = loadDocuments(productId);
+
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+            loaded.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Matching product ids, newest first, or null when the index cannot answer
+     * (disabled, still building, or an invalid pattern) and the caller should
+     * fall back to the database.
+     */
+    public List<Long> search(SearchParamsRequest params) {
+
+        if (!isReady())
+            return null;
+
+        Long categoryId = params.getCategory() != null ? Long.parseLong(params.getCategory()) : null;
+
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = null;
+
+            if (categoryId != null)
+                candidates = intersect(candidates, categories.getOrDefault(categoryId, Set.of()));
+            if (params.getSearch() != null)
+                candidates = intersect(candidates, names.match(params.getSearch()));
+            if (params.getBrand() != null)
+                candidates = intersect(candidates, brands.match(params.getBrand()));
+
+            if (params.getStyle() != null || params.getMaterial() != null || params.getGender() != null) {
+                Set<Long> matched = new HashSet<>();
+                for (String pattern : new String[] { params.getStyle(), params.getMaterial(), params.getGender() }) {
+                    if (pattern != null)
+                        matched.addAll(details.match(pattern));
+                }
+                candidates = intersect(candidates, matched);
+            }
+
+            Collection<Long> scan = candidates != null ? candidates : documents.keySet();
+
+            // 가격/사이즈/색상은 정렬된 배열 인덱스가 있으면 그쪽에서 거른다
+            long[] variantIds = variantPriceIndex.findProductIds(params.getLowPrice(), params.getHighPrice(),
+                    params.getSize(), params.getColor());
+
+            Pattern size = variantIds == null && params.getSize() != null ? compile(params.getSize()) : null;
+            Pattern color = variantIds == null && params.getColor() != null ? compile(params.getColor()) : null;
+
+            List<Long> result = new ArrayList<>();
+            if (variantIds != null && candidates == null) {
+                for (long id : variantIds) {
+                    ProductDocument doc = documents.get(id);
+                    if (doc != null && matchesRating(doc, params))
+                        result.add(id);
+                }
+            } else {
+                for (Long id : scan) {
+                    ProductDocument doc = documents.get(id);
+                    if (doc == null || !matchesRating(doc, params))
+                        continue;
+                    if (variantIds != null ? Arrays.binarySearch(variantIds, id) >= 0
+                            : matchesVariant(doc, params, size, color))
+                        result.add(id);
+                }
+            }
+
+            // DB 쿼리와 같은 순서 (product_id desc)
+            result.sort(Comparator.reverseOrder());
+            return result;
+
+        } catch (PatternSyntaxException e) {
+            log.info("Search index fallback: " + e.getMessage());
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Facet values for a search answered by {@link #search}: one bitmap
+     * intersection per value instead of the per-facet queries.
+     */
+    public SearchFacets facets(List<Long> matched, Long categoryId) {
+
+        lock.readLock().lock();
+        try {
+            BitSet scope = categoryId != null ? facets.bitmap(FacetIndex.CATEGORY, Long.toString(categoryId)) : null;
+
+            Map<String, Map<String, Integer>> inScope = facets.count(scope);
+            Map<String, Map<String, Integer>> inResult = facets.count(facets.toBitSet(matched));
+
+            List<ProductDetailDTO> detailValues = new ArrayList<>();
+            inScope.forEach((facet, values) -> {
+                if (facet.startsWith(FacetIndex.DETAIL_PREFIX)) {
+                    String name = facet.substring(FacetIndex.DETAIL_PREFIX.length());
+                    values.keySet().forEach(value -> detailValues.add(
+                            ProductDetailDTO.builder().name(name).value(value).build()));
+                }
+            });
+
+            Map<String, List<FacetValueDTO>> counts = new LinkedHashMap<>();
+            inResult.forEach((facet, values) -> counts.put(facet, values.entrySet().stream()
+                    .map(e -> new FacetValueDTO(e.getKey(), e.getValue()))
+                    .collect(Collectors.toList())));
+
+            return SearchFacets.builder()
+                    .brands(new ArrayList<>(inScope.getOrDefault(FacetIndex.BRAND, Map.of()).keySet()))
+                    .colors(new ArrayList<>(inScope.getOrDefault(FacetIndex.COLOR, Map.of()).keySet()))
+                    .sizes(new ArrayList<>(inScope.getOrDefault(FacetIndex.SIZE, Map.of()).keySet()))
+                    .details(detailValues)
+                    .counts(counts)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Offers {@code matched} to the selector by the sort mode's key and returns
+     * what it kept, best first.
+     */
+    public long[] rank(List<Long> matched, SearchSort sort, TopKSelector selector) {
+
+        lock.readLock().lock();
+        try {
+            for (Long id : matched) {
+                ProductDocument doc = documents.get(id);
+                if (doc != null)
+                    selector.offer(id, sort.score(sortKey(doc, sort)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return selector.drain();
+    }
+
+    private static Number sortKey(ProductDocument doc, SearchSort sort) {
+
+        switch (sort) {
+            case BEST_SELLING:
+                return doc.getSold();
+            case TOP_RATED:
+                return doc.getRating();
+            case PRICE_ASC:
+            case PRICE_DESC:
+                return doc.getMinPrice();
+            default:
+                return doc.getProductId();
+        }
+    }
+
+    private boolean matchesRating(ProductDocument doc, SearchParamsRequest params) {
+        return params.getRating() == null || doc.getRating() >= params.getRating();
+    }
+
+    private boolean matchesVariant(ProductDocument doc, SearchParamsRequest params, Pattern size, Pattern color) {
+
+        boolean priceFilter = params.getLowPrice() != null && params.getHighPrice() != null;
+
+        for (ProductDocument.Variant v : doc.getVariants()) {
+
+            if (priceFilter && (v.getPrice() == null
+                    || v.getPrice() < params.getLowPrice() || v.getPrice() > params.getHighPrice()))
+                continue;
+            if (size != null && (v.getSize() == null || !size.matcher(v.getSize()).find()))
+                continue;
+            if (color != null && (v.getColor() == null || !color.matcher(v.getColor()).find()))
+                continue;
+
+            return true;
+        }
+        return false;
+    }
+
+    private static Pattern compile(String regex) {
+        return Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    private static Set<Long> intersect(Set<Long> current, Set<Long> postings) {
+
+        if (current == null)
+            return new HashSet<>(postings);
+
+        current.retainAll(postings);
+        return current;
+    }
+
+    private void add(ProductDocument doc) {
+
+        documents.put(doc.getProductId(), doc);
+
+        if (doc.getCategoryId() != null)
+            categories.computeIfAbsent(doc.getCategoryId(), c -> new HashSet<>()).add(doc.getProductId());
+
+        names.add(doc.getProductId(), doc.getName());
+        brands.add(doc.getProductId(), doc.getBrand());
+        doc.getDetails().forEach(detail -> details.add(doc.getProductId(), detail.getValue()));
+        facets.add(doc);
+    }
+
+    private void remove(Long productId) {
+
+        ProductDocument doc = documents.remove(productId);
+        if (doc == null)
+            return;
+
+        Set<Long> ids = categories.get(doc.getCategoryId());
+        if (ids != null) {
+            ids.remove(productId);
+            if (ids.isEmpty())
+                categories.remove(doc.getCategoryId());
+        }
+
+        names.remove(productId);
+        brands.remove(productId);
+        details.remove(productId);
+        facets.remove(productId);
+    }
+
+    // productId가 null이면 전체 카탈로그
+    private Collection<ProductDocument> loadDocuments(Long productId) {
+
+        Map<Long, ProductDocument> loaded = new HashMap<>();
+
+        for (Object[] row : productRepository.findSearchRows(productId)) {
+            ProductDocument doc = new ProductDocument((Long) row[0]);
+            doc.setCategoryId((Long) row[1]);
+            doc.setName((String) row[2]);
+            doc.setBrand((String) row[3]);
+            doc.setRating(row[4] != null ? ((Number) row[4]).floatValue() : 0F);
+            loaded.put(doc.getProductId(), doc);
+        }
+
+        for (Object[] row : productRepository.findSubCategoryRows(productId)) {
+            ProductDocument doc = loaded.get((Long) row[0]);
+            if (doc != null)
+                doc.getSubCategoryIds().add((Long) row[1]);
+        }
+
+        for (Object[] row : productDetailsRepository.findSearchRows(productId)) {
+            ProductDocument doc = loaded.get((Long) row[0]);
+            if (doc != null && row[2] != null)
+                doc.getDetails().add(new ProductDocument.Detail((String) row[1], (String) row[2]));
+        }
+
+        for (Object[] row : productSkuRepository.findSearchRows(productId)) {
+            ProductDocument doc = loaded.get((Long) row[0]);
+            if (doc != null)
+                doc.getVariants().add(new ProductDocument.Variant((Long) row[1], (String) row[2],
+                        (Integer) row[3], (String) row[4]));
+        }
+
+        for (Object[] row : productSkuRepository.findSoldRows(productId)) {
+            ProductDocument doc = loaded.get((Long) row[0]);
+            if (doc != null && row[1] != null)
+                doc.setSold(((Number) row[1]).longValue());
+        }
+
+        return loaded.values();
+    }
+}
@@ -0,0 +1,29 @@
+package com.project.backend.search;
+
+import java.util.List;
+import java.util.Map;
+
+import com.project.backend.dto.FacetValueDTO;
+import com.project.backend.dto.ProductDetailDTO;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Filter values for the browse page, taken from the facet bitmaps.
+ * The plain lists are scoped to the category, the counts to the current result set.
+ */
+@Getter
+@Builder
+public class SearchFacets {
+
+    private final List<String> brands;
+
+    private final List<String> colors;
+
+    private final List<String> sizes;
+
+    private final List<ProductDetailDTO> details;
+
+    private final Map<String, List<FacetValueDTO>> counts;
+}
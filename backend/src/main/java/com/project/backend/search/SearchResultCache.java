@@ -0,0 +1,189 @@
+package com.project.backend.search;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.project.backend.dto.SearchResultDTO;
+import com.project.backend.event.ProductChangedEvent;
+import com.project.backend.security.request.SearchParamsRequest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * LRU cache in front of {@code ProductService.searchProducts}, bounded by
+ * entry count and by total weight (products + facet values held).
+ * Entries are dropped per category when a {@link ProductChangedEvent} arrives.
+ */
+@Component
+public class SearchResultCache {
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Value("${search.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${search.cache.max-weight:50000}")
+    private long maxWeight;
+
+    private long weight = 0;
+
+    // 계산 도중 무효화된 결과를 넣지 않기 위한 세대 번호
+    private long generation = 0;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    public SearchResultCache(MeterRegistry registry) {
+        this.hits = Counter.builder("search.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("search.cache.requests").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("search.cache.evictions").tag("cause", "size").register(registry);
+        this.invalidations = Counter.builder("search.cache.evictions").tag("cause", "write").register(registry);
+        Gauge.builder("search.cache.size", this, SearchResultCache::size).register(registry);
+        Gauge.builder("search.cache.weight", this, SearchResultCache::weight).register(registry);
+    }
+
+    public synchronized SearchResultDTO get(String key) {
+
+        if (!enabled)
+            return null;
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.result;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(String key, Long categoryId, SearchResultDTO result, long generationAtStart) {
+
+        if (!enabled || result == null || generationAtStart != generation)
+            return;
+
+        Entry entry = new Entry(categoryId, result, weigh(result));
+        if (entry.weight > maxWeight)
+            return;
+
+        Entry previous = entries.put(key, entry);
+        if (previous != null)
+            weight -= previous.weight;
+        weight += entry.weight;
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+            Entry e = eldest.next();
+            eldest.remove();
+            weight -= e.weight;
+            evictions.increment();
+        }
+    }
+
+    @EventListener
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+
+        generation++;
+
+        Long categoryId = event.getCategoryId();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry e = it.next();
+            // 카테고리 없는 검색 결과는 모든 카테고리를 포함한다
+            if (categoryId == null || e.categoryId == null || categoryId.equals(e.categoryId)) {
+                it.remove();
+                weight -= e.weight;
+                invalidations.increment();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    /**
+     * Key that is equal for requests which produce the same result: blank
+     * values count as absent, and simple {@code a|b} alternations are sorted.
+     */
+    public static String key(SearchParamsRequest params) {
+
+        return String.join("&",
+                "q=" + canonical(params.getSearch()),
+                "category=" + canonical(params.getCategory()),
+                "style=" + canonical(params.getStyle()),
+                "size=" + canonical(params.getSize()),
+                "color=" + canonical(params.getColor()),
+                "brand=" + canonical(params.getBrand()),
+                "material=" + canonical(params.getMaterial()),
+                "gender=" + canonical(params.getGender()),
+                "price=" + (params.getLowPrice() != null && params.getHighPrice() != null
+                        ? params.getLowPrice() + "_" + params.getHighPrice() : ""),
+                "rating=" + Objects.toString(params.getRating(), ""),
+                "page=" + Math.max(params.getPage(), 1),
+                "cursor=" + Objects.toString(params.getCursor(), "-"),
+                "pageSize=" + params.getPageSize(),
+                "sort=" + (SearchSort.from(params.getSort()) != null ? SearchSort.from(params.getSort()).getValue() : ""),
+                "total=" + params.isWithTotal(),
+                "view=" + (params.isSummaryView() ? "summary" : "full"));
+    }
+
+    private static String canonical(String value) {
+
+        if (value == null || value.isBlank())
+            return "";
+
+        String trimmed = value.trim();
+
+        // 괄호나 이스케이프가 있으면 순서를 바꾸지 않는다
+        if (trimmed.indexOf('|') < 0 || trimmed.matches(".*[()\\[\\]\\\\].*"))
+            return trimmed;
+
+        String[] parts = trimmed.split("\\|");
+        Arrays.sort(parts);
+        return String.join("|", parts);
+    }
+
+    private static long weigh(SearchResultDTO result) {
+
+        long w = 1;
+        if (result.getProduct() != null)
+            w += result.getProduct().getNumberOfElements();
+        if (result.getFacets() != null)
+            w += result.getFacets().values().stream().mapToLong(v -> v.size()).sum() / 10;
+        return w;
+    }
+
+    private static final class Entry {
+
+        final Long categoryId;
+        final SearchResultDTO result;
+        final long weight;
+
+        Entry(Long categoryId, SearchResultDTO result, long weight) {
+            this.categoryId = categoryId;
+            this.result = result;
+            this.weight = weight;
+        }
+    }
+}
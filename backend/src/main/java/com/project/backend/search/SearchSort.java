@@ -0,0 +1,57 @@
+package com.project.backend.search;
+
+/**
+ * Sort modes accepted by {@code /api/search?sort=}. Without a mode results
+ * stay in product_id desc order, which is also {@link #NEWEST}.
+ */
+public enum SearchSort {
+
+    BEST_SELLING("best-selling", false),
+    TOP_RATED("top-rated", false),
+    NEWEST("newest", false),
+    PRICE_ASC("price-asc", true),
+    PRICE_DESC("price-desc", false);
+
+    private final String value;
+
+    private final boolean ascending;
+
+    SearchSort(String value, boolean ascending) {
+        this.value = value;
+        this.ascending = ascending;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    // 알 수 없는 값은 기본 정렬로 본다
+    public static SearchSort from(String value) {
+
+        if (value == null)
+            return null;
+
+        for (SearchSort sort : values()) {
+            if (sort.value.equalsIgnoreCase(value.trim()))
+                return sort;
+        }
+        return null;
+    }
+
+    // product_id desc 외의 순서가 필요한지
+    public boolean needsRanking() {
+        return this != NEWEST;
+    }
+
+    /**
+     * Sort key turned into a "higher is better" score for {@link TopKSelector}.
+     * Products without a key (e.g. no sizes yet) go last in either direction.
+     */
+    public double score(Number key) {
+
+        if (key == null)
+            return Double.NEGATIVE_INFINITY;
+
+        return ascending ? -key.doubleValue() : key.doubleValue();
+    }
+}
@@ -0,0 +1,335 @@
+package com.project.backend.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.project.backend.dto.SuggestionDTO;
+import com.project.backend.event.ProductChangedEvent;
+import com.project.backend.repository.CategoryRepository;
+import com.project.backend.repository.ProductRepository;
+import com.project.backend.repository.SubCategoryRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Search-as-you-type suggestions over product names, brands, categories and
+ * subcategories, ranked by units sold. Built at startup and patched per
+ * product from {@link ProductChangedEvent}s.
+ */
+@Slf4j
+@Component
+public class SuggestIndex {
+
+    public static final String PRODUCT = "product";
+    public static final String BRAND = "brand";
+    public static final String CATEGORY = "category";
+    public static final String SUBCATEGORY = "subcategory";
+
+    // "air max" 처럼 이름 중간 단어로도 찾을 수 있게 앞쪽 단어 몇 개의 접미사를 넣는다
+    private static final int MAX_WORD_STARTS = 4;
+
+    private final ProductRepository productRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final SubCategoryRepository subCategoryRepository;
+
+    @Value("${search.suggest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.suggest.max-results:10}")
+    private int maxResults;
+
+    private volatile boolean ready = false;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private SuggestionTrie trie;
+
+    // 현재 trie에 들어 있는 제안 (type:id -> suggestion)
+    private final Map<String, SuggestionDTO> indexed = new HashMap<>();
+
+    private final Map<Long, Entry> products = new HashMap<>();
+
+    private final Map<String, Aggregate> brands = new HashMap<>();
+
+    private final Map<Long, Aggregate> categories = new HashMap<>();
+
+    private final Map<Long, Aggregate> subCategories = new HashMap<>();
+
+    public SuggestIndex(ProductRepository productRepository, CategoryRepository categoryRepository,
+            SubCategoryRepository subCategoryRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.subCategoryRepository = subCategoryRepository;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+
+        if (!enabled)
+            return;
+
+        List<Object[]> categoryRows = categoryRepository.findSuggestRows();
+        List<Object[]> subCategoryRows = subCategoryRepository.findSuggestRows();
+        Map<Long, Entry> loaded = loadProducts(null);
+
+        lock.writeLock().lock();
+        try {
+            trie = new SuggestionTrie(maxResults);
+            indexed.clear();
+            products.clear();
+            brands.clear();
+            categories.clear();
+            subCategories.clear();
+
+            for (Object[] row : categoryRows)
+                categories.put((Long) row[0], new Aggregate((String) row[1], (String) row[2]));
+            for (Object[] row : subCategoryRows)
+                subCategories.put((Long) row[0], new Aggregate((String) row[1], (String) row[2]));
+
+            loaded.values().forEach(this::add);
+
+            categories.forEach((id, agg) -> put(CATEGORY, String.valueOf(id), agg));
+            subCategories.forEach((id, agg) -> put(SUBCATEGORY, String.valueOf(id), agg));
+            brands.forEach((key, agg) -> put(BRAND, key, agg));
+
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Suggest index built: " + indexed.size() + " suggestions");
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+
+        if (!isReady())
+            return;
+
+        // 카테고리 생성 등 카탈로그 전체 변경은 다시 만든다
+        if (event.getProductId() == null) {
+            build();
+            return;
+        }
+
+        reindex(event.getProductId());
+    }
+
+    public void reindex(Long productId) {
+
+        Entry loaded = loadProducts(productId).get(productId);
+
+        lock.writeLock().lock();
+        try {
+            Set<String> touchedBrands = new HashSet<>();
+            Set<Long> touchedCategories = new HashSet<>();
+            Set<Long> touchedSubCategories = new HashSet<>();
+
+            for (Entry e : new Entry[] { products.get(productId), loaded }) {
+                if (e == null)
+                    continue;
+                if (e.brandKey != null)
+                    touchedBrands.add(e.brandKey);
+                if (e.categoryId != null)
+                    touchedCategories.add(e.categoryId);
+                touchedSubCategories.addAll(e.subCategoryIds);
+            }
+
+            Entry old = products.remove(productId);
+            if (old != null) {
+                contribute(old, -1);
+                drop(PRODUCT, String.valueOf(productId));
+            }
+            if (loaded != null)
+                add(loaded);
+
+            for (String key : touchedBrands) {
+                Aggregate agg = brands.get(key);
+                if (agg != null && agg.products == 0) {
+                    brands.remove(key);
+                    drop(BRAND, key);
+                } else if (agg != null) {
+                    put(BRAND, key, agg);
+                }
+            }
+            touchedCategories.forEach(id -> {
+                if (categories.containsKey(id))
+                    put(CATEGORY, String.valueOf(id), categories.get(id));
+            });
+            touchedSubCategories.forEach(id -> {
+                if (subCategories.containsKey(id))
+                    put(SUBCATEGORY, String.valueOf(id), subCategories.get(id));
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top suggestions for the typed prefix, best-selling first. Empty when the
+     * index is disabled or still building.
+     */
+    public List<SuggestionDTO> suggest(String query, int limit) {
+
+        String prefix = normalize(query);
+        if (!isReady() || prefix.isEmpty() || limit <= 0)
+            return List.of();
+
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(trie.top(prefix, Math.min(limit, maxResults)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Entry> loadProducts(Long productId) {
+
+        Map<Long, Entry> loaded = new HashMap<>();
+
+        for (Object[] row : productRepository.findSuggestRows(productId)) {
+            Entry e = new Entry();
+            e.productId = (Long) row[0];
+            e.name = (String) row[1];
+            e.slug = (String) row[2];
+            e.brand = (String) row[3];
+            e.brandKey = e.brand != null && !normalize(e.brand).isEmpty() ? normalize(e.brand) : null;
+            e.categoryId = (Long) row[4];
+            e.sold = ((Number) row[5]).longValue();
+            loaded.put(e.productId, e);
+        }
+
+        for (Object[] row : productRepository.findSubCategoryRows(productId)) {
+            Entry e = loaded.get((Long) row[0]);
+            if (e != null)
+                e.subCategoryIds.add((Long) row[1]);
+        }
+
+        return loaded;
+    }
+
+    private void add(Entry e) {
+
+        products.put(e.productId, e);
+        if (e.brandKey != null)
+            brands.computeIfAbsent(e.brandKey, k -> new Aggregate(e.brand, null));
+        contribute(e, 1);
+
+        if (e.name != null)
+            put(SuggestionDTO.builder()
+                    .type(PRODUCT)
+                    .id(String.valueOf(e.productId))
+                    .text(e.name)
+                    .slug(e.slug)
+                    .score(e.sold)
+                    .build());
+    }
+
+    private void contribute(Entry e, int sign) {
+
+        if (e.brandKey != null && brands.containsKey(e.brandKey)) {
+            Aggregate agg = brands.get(e.brandKey);
+            agg.score += sign * e.sold;
+            agg.products += sign;
+        }
+        if (e.categoryId != null && categories.containsKey(e.categoryId))
+            categories.get(e.categoryId).score += sign * e.sold;
+        for (Long id : e.subCategoryIds) {
+            if (subCategories.containsKey(id))
+                subCategories.get(id).score += sign * e.sold;
+        }
+    }
+
+    private void put(String type, String id, Aggregate agg) {
+        put(SuggestionDTO.builder()
+                .type(type)
+                .id(id)
+                .text(agg.text)
+                .slug(agg.slug)
+                .score(agg.score)
+                .build());
+    }
+
+    private void put(SuggestionDTO suggestion) {
+
+        SuggestionDTO old = indexed.get(SuggestionTrie.keyOf(suggestion));
+        if (old != null) {
+            if (old.equals(suggestion))
+                return;
+            keys(old.getText()).forEach(key -> trie.remove(key, old));
+        }
+
+        indexed.put(SuggestionTrie.keyOf(suggestion), suggestion);
+        keys(suggestion.getText()).forEach(key -> trie.insert(key, suggestion));
+    }
+
+    private void drop(String type, String id) {
+
+        SuggestionDTO old = indexed.remove(type + ":" + id);
+        if (old != null)
+            keys(old.getText()).forEach(key -> trie.remove(key, old));
+    }
+
+    private static List<String> keys(String text) {
+
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty())
+            return keys;
+
+        keys.add(normalized);
+        int from = 0;
+        while (keys.size() < MAX_WORD_STARTS) {
+            int space = normalized.indexOf(' ', from);
+            if (space < 0)
+                break;
+            keys.add(normalized.substring(space + 1));
+            from = space + 1;
+        }
+        return keys;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static class Entry {
+        Long productId;
+        String name;
+        String slug;
+        String brand;
+        String brandKey;
+        Long categoryId;
+        long sold;
+        final List<Long> subCategoryIds = new ArrayList<>();
+    }
+
+    private static class Aggregate {
+        final String text;
+        final String slug;
+        long score;
+        int products;
+
+        Aggregate(String text, String slug) {
+            this.text = text;
+            this.slug = slug;
+        }
+    }
+}
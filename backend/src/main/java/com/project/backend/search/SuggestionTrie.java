@@ -0,0 +1,175 @@
+package com.project.backend.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.project.backend.dto.SuggestionDTO;
+
+/**
+ * Compressed (radix) prefix trie. Every node caches the top-K suggestions of
+ * its subtree, so a lookup costs one walk down the prefix.
+ * Not thread-safe; {@link SuggestIndex} guards access.
+ */
+public class SuggestionTrie {
+
+    static final Comparator<SuggestionDTO> RANK = Comparator.comparingLong(SuggestionDTO::getScore).reversed()
+            .thenComparing(SuggestionDTO::getText);
+
+    private final int k;
+
+    private final Node root = new Node("");
+
+    public SuggestionTrie(int k) {
+        this.k = k;
+    }
+
+    public void insert(String key, SuggestionDTO suggestion) {
+
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+
+            Node child = node.children.get(key.charAt(i));
+
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.children.put(key.charAt(i), child);
+                i = key.length();
+            } else {
+                int common = commonPrefix(child.label, key, i);
+
+                if (common < child.label.length()) {
+                    // 간선을 공통 접두사에서 나눈다
+                    Node mid = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    mid.children.put(child.label.charAt(0), child);
+                    mid.top = child.top;
+                    node.children.put(key.charAt(i), mid);
+                    child = mid;
+                }
+                i += common;
+            }
+
+            node = child;
+            path.add(node);
+        }
+
+        node.entries.put(keyOf(suggestion), suggestion);
+        refresh(path);
+    }
+
+    public void remove(String key, SuggestionDTO suggestion) {
+
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i))
+                return;
+            i += child.label.length();
+            node = child;
+            path.add(node);
+        }
+
+        if (node.entries.remove(keyOf(suggestion)) == null)
+            return;
+
+        // 비어 버린 잎 노드는 떼어 낸다
+        for (int p = path.size() - 1; p > 0; p--) {
+            Node n = path.get(p);
+            if (!n.entries.isEmpty() || !n.children.isEmpty())
+                break;
+            path.get(p - 1).children.remove(n.label.charAt(0));
+            path.remove(p);
+        }
+
+        refresh(path);
+    }
+
+    public List<SuggestionDTO> top(String prefix, int limit) {
+
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(i));
+            if (child == null)
+                return List.of();
+
+            int remaining = prefix.length() - i;
+            if (remaining <= child.label.length()) {
+                if (!child.label.startsWith(prefix.substring(i)))
+                    return List.of();
+                node = child;
+                break;
+            }
+            if (!prefix.startsWith(child.label, i))
+                return List.of();
+
+            i += child.label.length();
+            node = child;
+        }
+
+        List<SuggestionDTO> top = node.top;
+        return top.size() > limit ? top.subList(0, limit) : top;
+    }
+
+    public void clear() {
+        root.children.clear();
+        root.entries.clear();
+        root.top = List.of();
+    }
+
+    private void refresh(List<Node> path) {
+
+        for (int p = path.size() - 1; p >= 0; p--) {
+            Node node = path.get(p);
+
+            // 같은 상품이 여러 접미사 키로 들어가 있으므로 id로 중복을 없앤다
+            Map<String, SuggestionDTO> merged = new LinkedHashMap<>();
+            node.entries.values().forEach(s -> merged.put(keyOf(s), s));
+            node.children.values().forEach(c -> c.top.forEach(s -> merged.putIfAbsent(keyOf(s), s)));
+
+            List<SuggestionDTO> candidates = new ArrayList<>(merged.values());
+            candidates.sort(RANK);
+            node.top = List.copyOf(candidates.size() > k ? candidates.subList(0, k) : candidates);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+
+        int n = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < n && label.charAt(i) == key.charAt(offset + i))
+            i++;
+        return i;
+    }
+
+    static String keyOf(SuggestionDTO s) {
+        return s.getType() + ":" + s.getId();
+    }
+
+    private static final class Node {
+
+        String label;
+
+        final Map<Character, Node> children = new HashMap<>();
+
+        final Map<String, SuggestionDTO> entries = new HashMap<>();
+
+        List<SuggestionDTO> top = List.of();
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.project.backend.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Per-field term dictionary with postings lists of product ids.
+ * Not thread-safe; {@link ProductSearchIndex} guards access.
+ */
+public class TermIndex {
+
+    private static final Pattern LITERAL = Pattern.compile("[\\p{L}\\p{N} ]+");
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // token -> product ids
+    private final TreeMap<String, Set<Long>> terms = new TreeMap<>();
+
+    // 원본 값 -> product ids (REGEXP 검색용)
+    private final Map<String, Set<Long>> values = new HashMap<>();
+
+    // product id -> 원본 값
+    private final Map<Long, List<String>> documents = new HashMap<>();
+
+    public void add(long productId, String value) {
+
+        if (value == null)
+            return;
+
+        documents.computeIfAbsent(productId, id -> new ArrayList<>()).add(value);
+        values.computeIfAbsent(value, v -> new HashSet<>()).add(productId);
+
+        for (String token : tokenize(value)) {
+            terms.computeIfAbsent(token, t -> new HashSet<>()).add(productId);
+        }
+    }
+
+    public void remove(long productId) {
+
+        List<String> removed = documents.remove(productId);
+        if (removed == null)
+            return;
+
+        for (String value : removed) {
+            removePosting(values, value, productId);
+
+            for (String token : tokenize(value)) {
+                removePosting(terms, token, productId);
+            }
+        }
+    }
+
+    /**
+     * Product ids whose value matches the query with MySQL REGEXP semantics
+     * (case-insensitive, unanchored). Plain word queries are answered from the
+     * term dictionary; anything else is matched against the distinct values.
+     */
+    public Set<Long> match(String query) {
+
+        if (!query.isBlank() && LITERAL.matcher(query).matches())
+            return matchLiteral(query);
+
+        Pattern pattern = Pattern.compile(query, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+        Set<Long> result = new HashSet<>();
+        for (Map.Entry<String, Set<Long>> entry : values.entrySet()) {
+            if (pattern.matcher(entry.getKey()).find())
+                result.addAll(entry.getValue());
+        }
+        return result;
+    }
+
+    private Set<Long> matchLiteral(String query) {
+
+        Set<Long> candidates = null;
+
+        for (String token : tokenize(query)) {
+
+            // "shirt"는 "tshirt"에도 걸려야 하므로 사전에서 부분 일치도 모은다
+            Set<Long> postings = new HashSet<>();
+            for (Map.Entry<String, Set<Long>> entry : terms.entrySet()) {
+                if (entry.getKey().contains(token))
+                    postings.addAll(entry.getValue());
+            }
+
+            if (candidates == null)
+                candidates = postings;
+            else
+                candidates.retainAll(postings);
+
+            if (candidates.isEmpty())
+                return candidates;
+        }
+
+        // 여러 단어는 연속된 문자열로 나와야 REGEXP와 같은 결과가 된다
+        String needle = query.toLowerCase(Locale.ROOT);
+        Set<Long> result = new HashSet<>();
+        for (Long id : candidates) {
+            for (String value : documents.get(id)) {
+                if (value.toLowerCase(Locale.ROOT).contains(needle)) {
+                    result.add(id);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    public Set<String> distinctValues() {
+        return values.keySet();
+    }
+
+    public Set<Long> postings(String value) {
+        return values.getOrDefault(value, Set.of());
+    }
+
+    public void clear() {
+        terms.clear();
+        values.clear();
+        documents.clear();
+    }
+
+    static List<String> tokenize(String value) {
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATOR.split(value.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty())
+                tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private static <K> void removePosting(Map<K, Set<Long>> map, K key, long productId) {
+
+        Set<Long> postings = map.get(key);
+        if (postings != null) {
+            postings.remove(productId);
+            if (postings.isEmpty())
+                map.remove(key);
+        }
+    }
+}
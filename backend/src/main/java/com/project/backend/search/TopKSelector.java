@@ -0,0 +1,131 @@
+package com.project.backend.search;
+
+/**
+ * Bounded min-heap over (productId, score) pairs on primitive arrays. Keeps the
+ * k best of n offers in O(n log k) without materializing or sorting the rest.
+ * Ties go to the larger (newer) id.
+ */
+public class TopKSelector {
+
+    private final long[] ids;
+
+    private final double[] scores;
+
+    private int size = 0;
+
+    // 커서 이후만 받는다 (keyset)
+    private boolean bounded = false;
+
+    private long boundId;
+
+    private double boundScore;
+
+    private double[] drainedScores = new double[0];
+
+    public TopKSelector(int k) {
+        this.ids = new long[Math.max(k, 0)];
+        this.scores = new double[Math.max(k, 0)];
+    }
+
+    /**
+     * Only accept pairs ranked after (score, id), i.e. the next page of a
+     * keyset cursor.
+     */
+    public TopKSelector after(double score, long id) {
+        this.bounded = true;
+        this.boundScore = score;
+        this.boundId = id;
+        return this;
+    }
+
+    public void offer(long id, double score) {
+
+        if (ids.length == 0)
+            return;
+
+        if (bounded) {
+            int c = Double.compare(score, boundScore);
+            if (c > 0 || (c == 0 && id >= boundId))
+                return;
+        }
+
+        if (size < ids.length) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (better(id, score, 0)) {
+            // 힙의 꼭대기가 지금까지 남긴 것 중 가장 나쁜 값
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Kept ids, best first. Empties the selector; {@link #scoreAt} then gives
+     * the matching scores.
+     */
+    public long[] drain() {
+
+        long[] result = new long[size];
+        drainedScores = new double[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = ids[0];
+            drainedScores[i] = scores[0];
+            size--;
+            ids[0] = ids[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    public double scoreAt(int i) {
+        return drainedScores[i];
+    }
+
+    // (id, score)가 heap[i]보다 앞에 와야 하면 true
+    private boolean better(long id, double score, int i) {
+        int c = Double.compare(score, scores[i]);
+        return c > 0 || (c == 0 && id > ids[i]);
+    }
+
+    private void siftUp(int i) {
+
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(ids[parent], scores[parent], i))
+                break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size)
+                break;
+
+            int right = left + 1;
+            int worst = right < size && better(ids[left], scores[left], right) ? right : left;
+
+            if (!better(ids[i], scores[i], worst))
+                break;
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
@@ -0,0 +1,499 @@
+package com.project.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.project.backend.event.ProductChangedEvent;
+import com.project.backend.repository.ProductSkuRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory replacement for {@code findProductIDBySizeAndPriceAndColor}.
+ * Every product_size row is kept in price order as primitive arrays, so a
+ * price range is two binary searches; sizes and colors are dictionary
+ * ordinals with a sorted product id set per value.
+ * Readers use an immutable snapshot; writers swap in a new one. A product
+ * change whose rows are unchanged is skipped; otherwise its rows are spliced
+ * out of and into the sorted arrays and only the touched groups are rebuilt.
+ * <p>
+ * Prices here are list prices (product_size.price), not the discounted
+ * prices of {@link com.project.backend.service.PricingEngine}. The price filter
+ * contract is list price everywhere it is answered: the SQL fallback compares
+ * {@code b.price}, price sorts rank on {@code min(z.price)}, and the listing's
+ * price range comes from {@code findPriceRangeRows}. Filtering discounted
+ * prices only here would return different products depending on
+ * {@code search.variant-index.enabled}. A range query also needs this
+ * price-ordered copy; the engine is keyed by size id and answers point lookups only.
+ */
+@Slf4j
+@Component
+public class VariantPriceIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final ProductSkuRepository productSkuRepository;
+
+    @Value("${search.variant-index.enabled:false}")
+    private boolean enabled;
+
+    private volatile Snapshot snapshot;
+
+    // 쓰는 쪽(synchronized)만 쓴다: 상품별 현재 행 (ORDER 순), 색/사이즈 -> ordinal
+    private final Map<Long, List<Row>> rowsByProduct = new HashMap<>();
+    private final Map<String, Integer> colorDict = new HashMap<>();
+    private final Map<String, Integer> sizeDict = new HashMap<>();
+
+    public VariantPriceIndex(ProductSkuRepository productSkuRepository) {
+        this.productSkuRepository = productSkuRepository;
+    }
+
+    public boolean isReady() {
+        return enabled && snapshot != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+
+        if (!enabled)
+            return;
+
+        List<Row> rows = toRows(productSkuRepository.findSearchRows(null));
+        rows.sort(Row.ORDER);
+
+        synchronized (this) {
+            rowsByProduct.clear();
+            colorDict.clear();
+            sizeDict.clear();
+
+            int n = rows.size();
+            int[] prices = new int[n];
+            long[] productIds = new long[n];
+            int[] colorOrds = new int[n];
+            int[] sizeOrds = new int[n];
+
+            int priced = 0;
+            for (int i = 0; i < n; i++) {
+                Row row = rows.get(i);
+                productIds[i] = row.productId;
+                if (row.price != null) {
+                    prices[i] = row.price;
+                    priced++;
+                }
+                colorOrds[i] = ordinal(colorDict, row.color);
+                sizeOrds[i] = ordinal(sizeDict, row.size);
+                rowsByProduct.computeIfAbsent(row.productId, id -> new ArrayList<>()).add(row);
+            }
+
+            List<String> colors = values(colorDict);
+            List<String> sizes = values(sizeDict);
+            snapshot = new Snapshot(prices, priced, productIds, colorOrds, sizeOrds, colors, sizes,
+                    group(colorOrds, productIds, colors.size()), group(sizeOrds, productIds, sizes.size()),
+                    distinct(productIds.clone(), n));
+        }
+
+        log.info("Variant price index built: " + rows.size() + " size rows");
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+
+        // 행에 재고가 없으므로 재고/판매량 변경은 건너뛴다
+        if (!isReady() || event.getProductId() == null || event.isStockOnly())
+            return;
+
+        List<Row> changed = toRows(productSkuRepository.findSearchRows(event.getProductId()));
+        changed.sort(Row.ORDER);
+        long productId = event.getProductId();
+
+        synchronized (this) {
+            List<Row> old = rowsByProduct.getOrDefault(productId, List.of());
+
+            // 이름/설명만 바뀐 경우 등 가격·사이즈·색 행이 그대로면 스냅샷을 건드리지 않는다
+            if (old.equals(changed))
+                return;
+
+            snapshot = splice(snapshot, productId, old, changed);
+
+            if (changed.isEmpty())
+                rowsByProduct.remove(productId);
+            else
+                rowsByProduct.put(productId, changed);
+        }
+    }
+
+    // 정렬된 배열에서 상품의 예전 행을 빼고 새 행을 가격 위치에 끼운다 (정렬 없이 구간 복사만)
+    private Snapshot splice(Snapshot current, long productId, List<Row> old, List<Row> changed) {
+
+        int n = current.productIds.length;
+
+        // 뺄 위치: 같은 가격 구간 안에서 이 상품의 행을 찾는다
+        int[] removed = new int[old.size()];
+        BitSet taken = new BitSet();
+        for (int r = 0; r < old.size(); r++) {
+            Integer price = old.get(r).price;
+            int i = price != null ? lowerBound(current.prices, current.priced, price) : current.priced;
+            while (current.productIds[i] != productId || taken.get(i))
+                i++;
+            taken.set(i);
+            removed[r] = i;
+        }
+        Arrays.sort(removed);
+
+        // 끼울 위치: 같은 가격의 기존 행 뒤, changed 가 ORDER 순이라 위치도 오름차순
+        int[] inserted = new int[changed.size()];
+        int[] newColorOrds = new int[changed.size()];
+        int[] newSizeOrds = new int[changed.size()];
+        int newPriced = 0;
+        for (int r = 0; r < changed.size(); r++) {
+            Row row = changed.get(r);
+            if (row.price != null) {
+                inserted[r] = upperBound(current.prices, current.priced, row.price);
+                newPriced++;
+            } else {
+                inserted[r] = n;
+            }
+            newColorOrds[r] = ordinal(colorDict, row.color);
+            newSizeOrds[r] = ordinal(sizeDict, row.size);
+        }
+
+        int oldPriced = 0;
+        for (Row row : old) {
+            if (row.price != null)
+                oldPriced++;
+        }
+
+        int m = n - old.size() + changed.size();
+        int[] prices = new int[m];
+        long[] productIds = new long[m];
+        int[] colorOrds = new int[m];
+        int[] sizeOrds = new int[m];
+
+        int src = 0;
+        int dst = 0;
+        int ri = 0;
+        int ii = 0;
+        while (src < n || ii < inserted.length) {
+
+            int next = n;
+            if (ri < removed.length)
+                next = Math.min(next, removed[ri]);
+            if (ii < inserted.length)
+                next = Math.min(next, inserted[ii]);
+
+            int len = next - src;
+            System.arraycopy(current.prices, src, prices, dst, len);
+            System.arraycopy(current.productIds, src, productIds, dst, len);
+            System.arraycopy(current.colorOrds, src, colorOrds, dst, len);
+            System.arraycopy(current.sizeOrds, src, sizeOrds, dst, len);
+            src = next;
+            dst += len;
+
+            if (ii < inserted.length && inserted[ii] == src) {
+                Row row = changed.get(ii);
+                prices[dst] = row.price != null ? row.price : 0;
+                productIds[dst] = productId;
+                colorOrds[dst] = newColorOrds[ii];
+                sizeOrds[dst] = newSizeOrds[ii];
+                dst++;
+                ii++;
+            } else if (ri < removed.length && removed[ri] == src) {
+                src++;
+                ri++;
+            }
+        }
+
+        // 새 색/사이즈가 생겼을 때만 ordinal 목록을 새로 만든다
+        List<String> colors = colorDict.size() == current.colors.size() ? current.colors : values(colorDict);
+        List<String> sizes = sizeDict.size() == current.sizes.size() ? current.sizes : values(sizeDict);
+
+        BitSet oldColors = new BitSet();
+        BitSet oldSizes = new BitSet();
+        for (Row row : old) {
+            setOrdinal(oldColors, colorDict, row.color);
+            setOrdinal(oldSizes, sizeDict, row.size);
+        }
+
+        return new Snapshot(prices, current.priced - oldPriced + newPriced, productIds, colorOrds, sizeOrds,
+                colors, sizes,
+                regroup(current.productsByColor, colors.size(), productId, oldColors, newColorOrds),
+                regroup(current.productsBySize, sizes.size(), productId, oldSizes, newSizeOrds),
+                changed.isEmpty() ? without(current.allProducts, productId) : with(current.allProducts, productId));
+    }
+
+    /**
+     * Distinct product ids, ascending, with a size row matching all given
+     * filters (null means no filter, as in the SQL). Null when not ready or
+     * when a pattern is not a valid Java regex.
+     */
+    public long[] findProductIds(Integer lowPrice, Integer highPrice, String size, String color) {
+
+        if (!isReady())
+            return null;
+
+        Snapshot s = snapshot;
+
+        BitSet colorMatch;
+        BitSet sizeMatch;
+        try {
+            colorMatch = color != null ? s.match(s.colors, color) : null;
+            sizeMatch = size != null ? s.match(s.sizes, size) : null;
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+        boolean priceFilter = lowPrice != null && highPrice != null;
+
+        if (!priceFilter) {
+            if (colorMatch == null && sizeMatch == null)
+                return s.allProducts;
+            if (sizeMatch == null)
+                return union(s.productsByColor, colorMatch);
+            if (colorMatch == null)
+                return union(s.productsBySize, sizeMatch);
+        }
+
+        int from = 0;
+        int to = s.productIds.length;
+        if (priceFilter) {
+            from = lowerBound(s.prices, s.priced, lowPrice);
+            to = upperBound(s.prices, s.priced, highPrice);
+        }
+
+        long[] ids = new long[Math.max(to - from, 0)];
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            if (colorMatch != null && (s.colorOrds[i] < 0 || !colorMatch.get(s.colorOrds[i])))
+                continue;
+            if (sizeMatch != null && (s.sizeOrds[i] < 0 || !sizeMatch.get(s.sizeOrds[i])))
+                continue;
+            ids[n++] = s.productIds[i];
+        }
+        return distinct(ids, n);
+    }
+
+    // 이 상품이 있던/있는 값의 그룹만 고치고 나머지 배열은 그대로 공유한다
+    private static long[][] regroup(long[][] groups, int size, long productId, BitSet before, int[] after) {
+
+        long[][] next = Arrays.copyOf(groups, size);
+        for (int o = groups.length; o < size; o++)
+            next[o] = EMPTY;
+
+        BitSet present = new BitSet();
+        for (int o : after) {
+            if (o >= 0)
+                present.set(o);
+        }
+
+        for (int o = before.nextSetBit(0); o >= 0; o = before.nextSetBit(o + 1)) {
+            if (!present.get(o))
+                next[o] = without(next[o], productId);
+        }
+        for (int o = present.nextSetBit(0); o >= 0; o = present.nextSetBit(o + 1))
+            next[o] = with(next[o], productId);
+
+        return next;
+    }
+
+    private static long[] group(int[] ordinals, long[] productIds, int size) {
+
+        int[] counts = new int[size];
+        for (int o : ordinals) {
+            if (o >= 0)
+                counts[o]++;
+        }
+
+        long[][] groups = new long[size][];
+        for (int o = 0; o < size; o++)
+            groups[o] = new long[counts[o]];
+
+        int[] fill = new int[size];
+        for (int i = 0; i < ordinals.length; i++) {
+            int o = ordinals[i];
+            if (o >= 0)
+                groups[o][fill[o]++] = productIds[i];
+        }
+
+        for (int o = 0; o < size; o++)
+            groups[o] = distinct(groups[o], groups[o].length);
+
+        return groups;
+    }
+
+    // 정렬된 id 집합에 넣은 새 배열, 이미 있으면 그대로
+    private static long[] with(long[] ids, long id) {
+
+        int at = Arrays.binarySearch(ids, id);
+        if (at >= 0)
+            return ids;
+
+        at = -at - 1;
+        long[] next = new long[ids.length + 1];
+        System.arraycopy(ids, 0, next, 0, at);
+        next[at] = id;
+        System.arraycopy(ids, at, next, at + 1, ids.length - at);
+        return next;
+    }
+
+    private static long[] without(long[] ids, long id) {
+
+        int at = Arrays.binarySearch(ids, id);
+        if (at < 0)
+            return ids;
+
+        long[] next = new long[ids.length - 1];
+        System.arraycopy(ids, 0, next, 0, at);
+        System.arraycopy(ids, at + 1, next, at, ids.length - at - 1);
+        return next;
+    }
+
+    private static long[] union(long[][] sets, BitSet ordinals) {
+
+        int total = 0;
+        for (int o = ordinals.nextSetBit(0); o >= 0 && o < sets.length; o = ordinals.nextSetBit(o + 1))
+            total += sets[o].length;
+
+        long[] ids = new long[total];
+        int n = 0;
+        for (int o = ordinals.nextSetBit(0); o >= 0 && o < sets.length; o = ordinals.nextSetBit(o + 1)) {
+            System.arraycopy(sets[o], 0, ids, n, sets[o].length);
+            n += sets[o].length;
+        }
+        return distinct(ids, n);
+    }
+
+    private static long[] distinct(long[] ids, int n) {
+
+        if (n == 0)
+            return EMPTY;
+
+        Arrays.sort(ids, 0, n);
+        int m = 1;
+        for (int i = 1; i < n; i++) {
+            if (ids[i] != ids[m - 1])
+                ids[m++] = ids[i];
+        }
+        return Arrays.copyOf(ids, m);
+    }
+
+    // 첫 번째로 price >= key인 위치
+    private static int lowerBound(int[] prices, int length, int key) {
+
+        int lo = 0;
+        int hi = length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] < key)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    // 첫 번째로 price > key인 위치
+    private static int upperBound(int[] prices, int length, int key) {
+
+        int lo = 0;
+        int hi = length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] <= key)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private static List<Row> toRows(List<Object[]> result) {
+
+        List<Row> rows = new ArrayList<>(result.size());
+        for (Object[] r : result) {
+            rows.add(new Row((Long) r[0], (Integer) r[3], (String) r[2], (String) r[4]));
+        }
+        return rows;
+    }
+
+    private static int ordinal(Map<String, Integer> dict, String value) {
+
+        if (value == null || value.isEmpty())
+            return -1;
+
+        return dict.computeIfAbsent(value, v -> dict.size());
+    }
+
+    private static void setOrdinal(BitSet bits, Map<String, Integer> dict, String value) {
+
+        int o = ordinal(dict, value);
+        if (o >= 0)
+            bits.set(o);
+    }
+
+    // ordinal -> 값
+    private static List<String> values(Map<String, Integer> dict) {
+
+        String[] values = new String[dict.size()];
+        dict.forEach((value, o) -> values[o] = value);
+        return List.of(values);
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static final class Row {
+
+        // 가격 오름차순, 가격 없는 행은 뒤로. 같은 가격은 사이즈/색 순이라 상품별 행 목록을 그대로 비교할 수 있다
+        static final Comparator<Row> ORDER = Comparator.comparing((Row r) -> r.price,
+                Comparator.nullsLast(Comparator.<Integer>naturalOrder()))
+                .thenComparing(r -> r.size, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(r -> r.color, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+        final long productId;
+        final Integer price;
+        final String size;
+        final String color;
+    }
+
+    @AllArgsConstructor
+    private static final class Snapshot {
+
+        final int[] prices;
+        final int priced;
+        final long[] productIds;
+        final int[] colorOrds;
+        final int[] sizeOrds;
+
+        // ordinal -> 값 (바뀌지 않는다, 새 값이 생기면 목록을 새로 만든다)
+        final List<String> colors;
+        final List<String> sizes;
+
+        final long[][] productsByColor;
+        final long[][] productsBySize;
+        final long[] allProducts;
+
+        BitSet match(List<String> values, String regex) {
+
+            Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+            BitSet bits = new BitSet(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                if (pattern.matcher(values.get(i)).find())
+                    bits.set(i);
+            }
+            return bits;
+        }
+    }
+}
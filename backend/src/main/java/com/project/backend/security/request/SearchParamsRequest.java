@@ -35,6 +35,22 @@ public class SearchParamsRequest {
 
     private int pageSize;
 
+    // best-selling, top-rated, newest, price-asc, price-desc (SearchSort)
+    private String sort;
+
+    // 있으면 (빈 문자열 포함) page 대신 keyset 커서로 페이지를 넘긴다
+    private String cursor;
+
+    // summary면 ProductDTO 대신 ProductSummaryDTO로 준다
+    private String view;
+
+    public boolean isSummaryView() {
+        return "summary".equalsIgnoreCase(view);
+    }
+
+    // false면 countProductsBySearchParams를 건너뛴다
+    private boolean withTotal = true;
+
 
 
 }
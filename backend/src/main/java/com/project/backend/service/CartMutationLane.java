@@ -0,0 +1,85 @@
+package com.project.backend.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serializes cart mutations per user: a fixed array of fair locks striped by
+ * username, so one user's requests apply in arrival order while other users
+ * only share a stripe by hash. The cart's @Version catches writers on other
+ * instances; those conflicts are retried with fresh state up to
+ * {@code cart.lane.max-attempts}.
+ */
+@Slf4j
+@Component
+public class CartMutationLane {
+
+    private final ReentrantLock[] stripes;
+
+    private final int maxAttempts;
+
+    private final Counter lostUpdates;
+    private final Counter retries;
+    private final Counter failures;
+    private final Timer wait;
+
+    public CartMutationLane(MeterRegistry registry,
+            @Value("${cart.lane.stripes:64}") int stripeCount,
+            @Value("${cart.lane.max-attempts:3}") int maxAttempts) {
+
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++)
+            stripes[i] = new ReentrantLock(true);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+
+        this.lostUpdates = Counter.builder("cart.mutation.conflicts").register(registry);
+        this.retries = Counter.builder("cart.mutation.retries").register(registry);
+        this.failures = Counter.builder("cart.mutation.failures").register(registry);
+        this.wait = Timer.builder("cart.mutation.lane.wait").register(registry);
+    }
+
+    public <T> T run(String username, Supplier<T> mutation) {
+
+        ReentrantLock lock = stripes[Math.floorMod(username.hashCode(), stripes.length)];
+
+        // 이미 같은 줄에 들어와 있으면 (saveCart -> persistCart 등) 바깥 호출이 재시도를 맡는다
+        if (lock.isHeldByCurrentThread())
+            return mutation.get();
+
+        long start = System.nanoTime();
+        lock.lock();
+        wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        try {
+            for (int attempt = 1;; attempt++) {
+                try {
+                    return mutation.get();
+                } catch (OptimisticLockingFailureException e) {
+
+                    // 다른 인스턴스가 먼저 고쳤다: 그대로 썼다면 잃었을 갱신
+                    lostUpdates.increment();
+
+                    if (attempt >= maxAttempts) {
+                        failures.increment();
+                        log.warn("Cart mutation for " + username + " gave up after " + attempt + " attempts: "
+                                + e.getMessage());
+                        throw new RuntimeException("Cart was changed concurrently, please retry");
+                    }
+                    retries.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,28 +1,33 @@
 package com.project.backend.service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.project.backend.constants.OperationStatus;
 import com.project.backend.dto.AddressDTO;
 import com.project.backend.dto.CartDTO;
+import com.project.backend.dto.CartLineDTO;
 import com.project.backend.dto.CartProductDTO;
 import com.project.backend.dto.ColorAttributeDTO;
 import com.project.backend.dto.ProductInfoDTO;
+import com.project.backend.dto.SkuPriceDTO;
 import com.project.backend.model.Cart;
 import com.project.backend.model.CartProduct;
 import com.project.backend.model.Coupon;
 import com.project.backend.model.Product;
 import com.project.backend.model.ProductColorAttribute;
 import com.project.backend.model.ProductSizeAttribute;
-import com.project.backend.model.ProductSku;
 import com.project.backend.model.ShippingAddress;
 import com.project.backend.model.User;
 import com.project.backend.model.WishList;
@@ -65,11 +70,21 @@ public class CartService {
 
     private final ProductService productService;
 
+    private final SkuPricingService skuPricingService;
+
+    private final CartStore cartStore;
+
+    private final TransactionTemplate tx;
+
+    private final CartMutationLane cartLane;
+
     @Autowired
     public CartService(CartRepository cartRepository, CartProductRepository cartProductRepository,
             UserRepository userRepository, ProductRepository productRepository,
             ProductSkuRepository productSkuRepository, ShippingAddressRepository shippingAddressRepository,
-            WishiListRepository wishiListRepository, CouponRepository couponRepository, ProductService productService) {
+            WishiListRepository wishiListRepository, CouponRepository couponRepository, ProductService productService,
+            SkuPricingService skuPricingService, CartStore cartStore,
+            PlatformTransactionManager transactionManager, CartMutationLane cartLane) {
         this.cartRepository = cartRepository;
         this.cartProductRepository = cartProductRepository;
         this.userRepository = userRepository;
@@ -79,6 +94,10 @@ public class CartService {
         this.wishiListRepository = wishiListRepository;
         this.couponRepository = couponRepository;
         this.productService = productService;
+        this.skuPricingService = skuPricingService;
+        this.cartStore = cartStore;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.cartLane = cartLane;
     }
 
     public String updatePaymentMethod(String username, String paymentMethod) {
@@ -176,9 +195,9 @@ public class CartService {
         if (!user.isPresent())
             return null;
 
-        Optional<Cart> cart = cartRepository.findByUser_UserName(username);
+        CartStore.StoredCart cart = readCart(username);
 
-        if (!cart.isPresent())
+        if (cart == null)
             return null;
 
         CartDTO result = new CartDTO();
@@ -213,14 +232,13 @@ public class CartService {
 
         List<CartProductDTO> products = new ArrayList<>();
 
-        for (CartProduct item : cart.get().getCartProducts()) {
+        for (CartLineDTO item : cart.getLines()) {
 
             CartProductDTO dto = new CartProductDTO();
-            dto.setId(Long.toString(item.getCartproductId()));
-            dto.setColor(ColorAttributeDTO.builder()
-                    .id(Long.toString(item.getColor().getColorId()))
-                    .color(item.getColor().getColor())
-                    .colorImage(item.getColor().getColorImage()).build());
+            // Redis 모드에서는 아직 DB 행이 없을 수 있어 _uid 로 준다 (결제 때 같은 값으로 찾는다)
+            dto.setId(cartStore.isEnabled() || item.getCartproductId() == null ? item.get_uid()
+                    : Long.toString(item.getCartproductId()));
+            dto.setColor(item.getColor());
             dto.setImage(item.getImage());
             dto.setName(item.getName());
             dto.setPrice(item.getPrice());
@@ -230,35 +248,132 @@ public class CartService {
             products.add(dto);
         }
         result.setProducts(products);
-        result.setCartTotal(cart.get().getCartTotal());
-        result.setTotalAfterDiscount(cart.get().getTotalAfterDiscount());
+        result.setCartTotal(cart.getCartTotal());
+        result.setTotalAfterDiscount(cart.getTotalAfterDiscount());
 
         return result;
     }
 
     public int deleteCartItem(String uid, String username) {
+        return cartLane.run(username, () -> removeCartItem(uid, username));
+    }
 
-        
+    private int removeCartItem(String uid, String username) {
 
-        CartProduct item = cartProductRepository.findBy_uid(uid)
-                .orElseThrow(() -> new RuntimeException("Cart item not found"));
+        if (cartStore.isEnabled()) {
+
+            CartStore.StoredCart cart = readCart(username);
+            CartLineDTO line = cart != null ? cart.line(uid) : null;
+
+            if (line == null)
+                throw new RuntimeException("Cart item not found");
+
+            List<CartLineDTO> lines = new ArrayList<>(cart.getLines());
+            lines.remove(line);
+
+            int cartTotal = cart.getCartTotal() - lineTotal(line);
+
+            // DB 쪽과 같이 합계가 0 이하가 되면 장바구니를 비운다
+            if (cartTotal <= 0) {
+                lines.clear();
+                cartTotal = 0;
+            }
+
+            if (cartStore.put(username, cart.getVersion(), lines, cartTotal, cart.getTotalAfterDiscount()))
+                return 1;
+        }
 
-        if (null != item) {
+        return tx.execute(status -> {
 
             Cart cart = cartRepository.findByUser_UserName(username)
                     .orElseThrow(() -> new RuntimeException("Cart not found"));
-            cart.setCartTotal(cart.getCartTotal() - (item.getPrice() + item.getShipping()));
 
-            cartRepository.save(cart);
+            CartProduct item = findItem(cart, uid);
 
-            if (cart.getCartTotal() <= 0)
-                cartRepository.delete(cart);
+            cart.setCartTotal(cart.getCartTotal() - lineTotal(item));
 
-            cartProductRepository.delete(item);
+            if (cart.getCartTotal() <= 0 || cart.getCartProducts().size() == 1) {
+                cartRepository.delete(cart);
+            } else {
+                // orphanRemoval 로 cart_product 행이 지워진다
+                cart.getCartProducts().remove(item);
+                cartRepository.save(cart);
+            }
 
             return 1;
+        });
+    }
+
+    /**
+     * 한 줄의 수량만 바꾸고 cartTotal 은 그 줄의 차이만큼 고친다.
+     * 바뀐 cartTotal 을 돌려준다.
+     */
+    public int updateCartItemQty(String username, String uid, int qty) {
+        return cartLane.run(username, () -> changeCartItemQty(username, uid, qty));
+    }
+
+    private int changeCartItemQty(String username, String uid, int qty) {
+
+        if (qty < 1)
+            throw new RuntimeException("Invalid quantity");
+
+        if (cartStore.isEnabled()) {
+
+            CartStore.StoredCart cart = readCart(username);
+            CartLineDTO line = cart != null ? cart.line(uid) : null;
+
+            if (line == null)
+                throw new RuntimeException("Cart item not found");
+
+            int cartTotal = cart.getCartTotal() + line.getPrice() * (qty - line.getQty());
+            line.setQty(qty);
+
+            if (cartStore.put(username, cart.getVersion(), cart.getLines(), cartTotal, cart.getTotalAfterDiscount()))
+                return cartTotal;
         }
-        return 0;
+
+        return tx.execute(status -> {
+
+            Cart cart = cartRepository.findByUser_UserName(username)
+                    .orElseThrow(() -> new RuntimeException("Cart not found"));
+
+            CartProduct item = findItem(cart, uid);
+
+            cart.setCartTotal(cart.getCartTotal() + item.getPrice() * (qty - item.getQty()));
+            item.setQty(qty);
+
+            return cartRepository.save(cart).getCartTotal();
+        });
+    }
+
+    public int addCartItemQty(String username, String uid, int delta) {
+
+        // 읽고 고치는 사이에 다른 요청이 끼지 않게 한 번에 줄을 선다
+        return cartLane.run(username, () -> {
+
+            CartStore.StoredCart cart = readCart(username);
+            CartLineDTO line = cart != null ? cart.line(uid) : null;
+
+            if (line == null)
+                throw new RuntimeException("Cart item not found");
+
+            return changeCartItemQty(username, uid, line.getQty() + delta);
+        });
+    }
+
+    private CartProduct findItem(Cart cart, String uid) {
+
+        return cart.getCartProducts().stream().filter(p -> uid.equals(p.get_uid())).findFirst()
+                .orElseThrow(() -> new RuntimeException("Cart item not found"));
+    }
+
+    // cartTotal 에 한 줄이 차지하는 몫
+    private static int lineTotal(CartLineDTO line) {
+        return line.getPrice() * line.getQty() + line.getShipping();
+    }
+
+    private static int lineTotal(CartProduct item) {
+        return item.getPrice() * item.getQty() + item.getShipping();
     }
 
     public List<ProductInfoDTO> updateCart(ProductInfoRequest request) {
@@ -267,26 +382,18 @@ public class CartService {
 
         for (ProductInfoDTO cartItem : request.getProducts()) {
 
-            Product product = productRepository.findById(Long.parseLong(cartItem.getId())).get();
+            SkuPriceDTO sku = skuPricingService.resolve(Long.parseLong(cartItem.getId()), cartItem.getStyle(),
+                    cartItem.getSize());
 
-            int originalPrice = product.getSku_products().get(cartItem.getStyle()).getSizes().stream()
-                    .filter(i -> i.getSize().equals(cartItem.getSize())).findFirst().get().getPrice();
-            int quantity = product.getSku_products().get(cartItem.getStyle()).getSizes().stream()
-                    .filter(i -> i.getSize().equals(i.getSize())).findFirst().get().getQuantity();
-            int discount = product.getSku_products().get(cartItem.getStyle()).getDiscount();
+            if (sku == null)
+                throw new RuntimeException("Product not found");
 
-            ProductInfoDTO dto = new ProductInfoDTO();
-            dto = cartItem;
-            dto.setPriceBefore(originalPrice);
+            ProductInfoDTO dto = cartItem;
+            dto.setPriceBefore(sku.getPriceBefore());
+            dto.setPrice(sku.getPrice());
             dto.setQty(cartItem.getQty());
-
-            if (discount > 0) {
-                int price = originalPrice - (originalPrice / discount);
-                dto.setPrice(price);
-            } else {
-                dto.setPrice(originalPrice);
-            }
-            dto.setShipping(product.getShipping());
+            dto.setQuantity(sku.getQuantity());
+            dto.setShipping(sku.getShipping());
 
             result.add(dto);
         }
@@ -296,49 +403,35 @@ public class CartService {
 
     public List<ProductInfoDTO> loadCart(String username) {
 
-        Optional<Cart> cart = cartRepository.findByUser_UserName(username);
-        // .orElseThrow(()->new RuntimeException("Cart not found"));
+        CartStore.StoredCart cart = readCart(username);
 
-        if (cart.isPresent()) {
+        if (cart != null) {
 
-            List<CartProduct> products = cart.get().getCartProducts();
+            List<CartLineDTO> products = cart.getLines();
 
-            List<ProductInfoDTO> result = new ArrayList<>();
-            for (CartProduct p : products) {
+            // 줄 수와 상관없이: sku/size 행 한 번, 상품 한 번, details/subCategories 는 batch fetch
+            Set<Long> productIds = products.stream().map(CartLineDTO::getProductId)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
 
-                Product product = productRepository.findById(p.getProduct().getProductId())
-                        .orElseThrow(() -> new RuntimeException("Product not found"));
+            SkuPricingService.Batch prices = skuPricingService.load(productIds);
 
-                AtomicInteger counter = new AtomicInteger(-1);
+            Map<Long, Product> productMap = productRepository.findAllById(productIds).stream()
+                    .collect(Collectors.toMap(Product::getProductId, p -> p));
 
-                int index = product.getSku_products().get(p.getStyle()).getSizes().stream()
-                        .filter(size -> {
-                            counter.getAndIncrement();
-                            return size.getSize().equals(p.getSize());
-                        })
-                        .mapToInt(size -> counter.get())
-                        .findFirst()
-                        .orElse(-1);
+            List<ProductInfoDTO> result = new ArrayList<>();
+            for (CartLineDTO p : products) {
+
+                Product product = productMap.get(p.getProductId());
+                SkuPriceDTO sku = prices.resolve(p.getProductId(), p.getStyle(), p.getSize());
 
-                ProductInfoDTO dto = productService.getCartProductInfo(p.getProduct().getProductId(),
-                        p.getStyle(), index);
+                if (product == null || sku == null)
+                    throw new RuntimeException("Product not found");
 
-                int originalPrice = product.getSku_products().get(p.getStyle()).getSizes().stream()
-                        .filter(i -> i.getSize().equals(p.getSize())).findFirst().get().getPrice();
-                int discount = product.getSku_products().get(p.getStyle()).getDiscount();
+                ProductInfoDTO dto = productService.getCartProductInfo(product, sku);
 
-                dto.setPriceBefore(originalPrice);
                 dto.setQty(p.getQty());
                 dto.set_uid(p.get_uid());
 
-                if (discount > 0) {
-                    int price = originalPrice - (originalPrice / discount);
-                    dto.setPrice(price);
-                } else {
-                    dto.setPrice(originalPrice);
-                }
-                dto.setShipping(product.getShipping());
-
                 result.add(dto);
 
             }
@@ -350,73 +443,182 @@ public class CartService {
     }
 
     public Cart saveCart(CartRequest request, String username) {
+        return cartLane.run(username, () -> writeCart(request, username));
+    }
+
+    private Cart writeCart(CartRequest request, String username) {
 
         if (request.getProducts().size() > 0) {
 
-            Optional<User> user = userRepository.findByUserName(username);
+            List<CartLineDTO> lines = new ArrayList<>();
 
-            if (user.isPresent()) {
-                Optional<Cart> existed = cartRepository.findByUser_UserName(username);
-                if (existed.isPresent()) {
+            for (ProductInfoDTO cartItem : request.getProducts()) {
+
+                Long productId = Long.parseLong(cartItem.getId());
+
+                SkuPriceDTO sku = skuPricingService.resolve(productId, cartItem.getStyle(), cartItem.getSize());
 
-                    cartRepository.delete(existed.get());
+                if (sku != null) {
+
+                    lines.add(CartLineDTO.builder()
+                            ._uid(cartItem.get_uid())
+                            .productId(productId)
+                            .sizeId(sku.getSizeId())
+                            .name(sku.getName())
+                            .image(sku.getImage())
+                            .size(cartItem.getSize())
+                            .style(cartItem.getStyle())
+                            .qty(cartItem.getQty())
+                            .color(cartItem.getColor())
+                            .price(sku.getPrice())
+                            .shipping(sku.getShipping())
+                            .build());
                 }
+
+            }
+            // Redis 모드면 DB 반영은 CartWriteBehind 가 한다. 요청이 장바구니 전체라 version 은 보지 않는다
+            int cartTotal = lines.stream().mapToInt(CartService::lineTotal).sum();
+            if (cartStore.put(username, null, lines, cartTotal, 0)) {
+                Cart cart = new Cart();
+                cart.setCartTotal(cartTotal);
+                return cart;
             }
 
-            Cart cart = new Cart();
-            cart.setUser(user.get());
+            return persistCart(username, lines, 0);
 
-            List<CartProduct> products = new ArrayList<CartProduct>();
+        }
 
-            for (ProductInfoDTO cartItem : request.getProducts()) {
+        return null;
+    }
 
-                
-                Optional<Product> product = productRepository.findById(Long.parseLong(cartItem.getId()));
+    /**
+     * Redis 모드면 Redis의 장바구니, 없으면 DB에서 읽고 Redis를 채운다.
+     * 장바구니가 없으면 null.
+     */
+    public CartStore.StoredCart readCart(String username) {
 
-                if (product.isPresent()) {
-                    ProductSku sku = product.get().getSku_products().get(cartItem.getStyle());
+        CartStore.StoredCart stored = cartStore.get(username);
 
-                    int price = sku.getSizes().stream().filter(p -> p.getSize().equals(cartItem.getSize()))
-                            .findFirst().get().getPrice();
-                    if (sku.getDiscount() > 0)
-                        price = (price - price / sku.getDiscount());
+        // 줄이 없는 해시는 비운 장바구니 (아직 DB에 반영되지 않았을 수 있다)
+        if (stored != null)
+            return stored.getLines().isEmpty() ? null : stored;
 
-                    ProductColorAttribute color = ProductColorAttribute.builder()
-                            .colorId(Long.parseLong(cartItem.getColor().getId()))
-                            .color(cartItem.getColor().getColor())
-                            .colorImage(cartItem.getColor().getColorImage()).build();
+        Optional<Cart> cart = cartRepository.findByUser_UserName(username);
 
-                    CartProduct cartProduct = CartProduct.builder()
-                            .name(product.get().getName())
-                            .color(color)
-                            .style(cartItem.getStyle())
-                            .product(product.get())
-                            .image(sku.getImages().get(0))
-                            .qty(cartItem.getQty())
-                            .price(price)
-                            .size(cartItem.getSize())
-                            ._uid(cartItem.get_uid())
-                            .shipping(product.get().getShipping())
-                            .build();
+        if (!cart.isPresent())
+            return null;
 
-                    products.add(cartProduct);
-                    cartProduct.setCart(cart);
-                }
+        List<CartLineDTO> lines = cart.get().getCartProducts().stream().map(this::toLine)
+                .collect(Collectors.toList());
+
+        long version = cartStore.warm(username, lines, cart.get().getCartTotal(), cart.get().getTotalAfterDiscount());
+
+        return new CartStore.StoredCart(lines, cart.get().getCartTotal(), cart.get().getTotalAfterDiscount(),
+                version);
+    }
 
+    /**
+     * 저장된 장바구니와 _uid 로 비교해 바뀐 줄만 insert/update/delete 하고
+     * cartTotal 은 바뀐 줄의 차이만큼 고친다. (Redis 모드에서는 write-behind 가 부른다)
+     */
+    public Cart persistCart(String username, List<CartLineDTO> lines, int totalAfterDiscount) {
+
+        return cartLane.run(username, () -> tx.execute(status -> {
+
+            Optional<Cart> existed = cartRepository.findByUser_UserName(username);
+
+            if (lines.isEmpty()) {
+                existed.ifPresent(cartRepository::delete);
+                return null;
             }
-            int cartTotal = 0;
-            for (CartProduct p : products) {
-                cartTotal = cartTotal + p.getPrice() * p.getQty() + p.getShipping();
+
+            Cart cart = existed.orElseGet(() -> {
+                Cart created = new Cart();
+                created.setUser(userRepository.findByUserName(username)
+                        .orElseThrow(() -> new RuntimeException("User not found")));
+                created.setCartProducts(new ArrayList<>());
+                return created;
+            });
+
+            Map<String, CartProduct> current = new HashMap<>();
+            for (CartProduct item : cart.getCartProducts())
+                current.put(item.get_uid(), item);
+
+            int cartTotal = cart.getCartTotal();
+
+            for (CartLineDTO line : lines) {
+
+                CartProduct item = current.remove(line.get_uid());
+
+                if (item == null) {
+                    item = toCartProduct(line);
+                    item.setCart(cart);
+                    cart.getCartProducts().add(item);
+                    cartTotal += lineTotal(line);
+                } else {
+                    // 값이 같으면 dirty checking 이 update 를 내지 않는다
+                    cartTotal += lineTotal(line) - lineTotal(item);
+                    apply(item, line);
+                }
+            }
+
+            for (CartProduct removed : current.values()) {
+                cartTotal -= lineTotal(removed);
+                cart.getCartProducts().remove(removed);
             }
 
-            cart.setCartProducts(products);
             cart.setCartTotal(cartTotal);
+            cart.setTotalAfterDiscount(totalAfterDiscount);
 
             return cartRepository.save(cart);
+        }));
+    }
 
-        }
+    private CartLineDTO toLine(CartProduct item) {
+
+        return CartLineDTO.builder()
+                ._uid(item.get_uid())
+                .cartproductId(item.getCartproductId())
+                .productId(item.getProduct().getProductId())
+                .sizeId(item.getSizeId())
+                .name(item.getName())
+                .image(item.getImage())
+                .size(item.getSize())
+                .style(item.getStyle())
+                .qty(item.getQty())
+                .color(ColorAttributeDTO.builder()
+                        .id(Long.toString(item.getColor().getColorId()))
+                        .color(item.getColor().getColor())
+                        .colorImage(item.getColor().getColorImage()).build())
+                .price(item.getPrice())
+                .shipping(item.getShipping())
+                .build();
+    }
 
-        return null;
+    private CartProduct toCartProduct(CartLineDTO line) {
+
+        CartProduct item = CartProduct.builder()
+                .product(productRepository.getReferenceById(line.getProductId()))
+                ._uid(line.get_uid())
+                .build();
+        apply(item, line);
+        return item;
+    }
+
+    private void apply(CartProduct item, CartLineDTO line) {
+
+        item.setName(line.getName());
+        item.setColor(ProductColorAttribute.builder()
+                .colorId(Long.parseLong(line.getColor().getId()))
+                .color(line.getColor().getColor())
+                .colorImage(line.getColor().getColorImage()).build());
+        item.setStyle(line.getStyle());
+        item.setImage(line.getImage());
+        item.setQty(line.getQty());
+        item.setPrice(line.getPrice());
+        item.setSize(line.getSize());
+        item.setSizeId(line.getSizeId());
+        item.setShipping(line.getShipping());
     }
 
     public OperationStatus addWishList(String username, WishListRequest request) {
@@ -468,6 +670,10 @@ public class CartService {
     }
 
     public CouponResponse applyCoupon(CouponRequest request, String username) {
+        return cartLane.run(username, () -> applyCouponToCart(request, username));
+    }
+
+    private CouponResponse applyCouponToCart(CouponRequest request, String username) {
 
         Optional<User> user = userRepository.findByUserName(username);
 
@@ -479,6 +685,20 @@ public class CartService {
                 return null;
             }
 
+            if (cartStore.isEnabled()) {
+
+                CartStore.StoredCart stored = readCart(username);
+
+                if (stored == null)
+                    throw new RuntimeException("Cart not found");
+
+                int totalAfterDiscount = (stored.getCartTotal() * coupon.get().getDiscount()) / 100;
+
+                if (cartStore.put(username, stored.getVersion(), stored.getLines(), stored.getCartTotal(),
+                        totalAfterDiscount))
+                    return new CouponResponse(totalAfterDiscount, coupon.get().getDiscount());
+            }
+
             Optional<Cart> cart = cartRepository.findByUser_UserName(username);
 
             int totalAfterDiscount = (cart.get().getCartTotal() * coupon.get().getDiscount()) / 100;
@@ -0,0 +1,244 @@
+package com.project.backend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.backend.dto.CartLineDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Each user's cart as a Redis hash: {@code line:{_uid}} fields hold the
+ * serialized lines, {@code cartTotal} / {@code totalAfterDiscount} the totals
+ * and {@code version} a counter bumped by every write. A put carries the
+ * version it read and fails with {@link OptimisticLockingFailureException}
+ * when another instance wrote in between, so {@link CartMutationLane} retries.
+ * Writes mark the user dirty; {@link CartWriteBehind} copies dirty carts to
+ * cart/cart_product. Enabled with {@code cart.redis.enabled=true}; every
+ * method degrades to "not stored" so callers fall back to MySQL.
+ */
+@Slf4j
+@Component
+public class CartStore {
+
+    private static final String KEY_PREFIX = "cart:";
+
+    private static final String DIRTY_KEY = "cart:dirty";
+
+    private static final String LINE_PREFIX = "line:";
+
+    // 장바구니 전체를 한 번에 바꾼다. ARGV: username, mode, ttl, 읽은 version, field, value, ...
+    // mode 1: 변경 (dirty 표시, version 이 비어 있지 않으면 같을 때만), 0: DB에서 읽어 채움
+    // (이미 있으면 덮지 않는다), 2: DB에서 읽어 덮어씀 (지우지 못한 오래된 해시를 바꿀 때)
+    // 새 version, version 이 달랐으면 -1, 채우지 않았으면 -2
+    private static final DefaultRedisScript<Long> REPLACE = new DefaultRedisScript<>(
+            "local v = tonumber(redis.call('HGET', KEYS[1], 'version') or '0') " +
+            "if ARGV[2] == '0' and redis.call('EXISTS', KEYS[1]) == 1 then return -2 end " +
+            "if ARGV[2] == '1' and ARGV[4] ~= '' and v ~= tonumber(ARGV[4]) then return -1 end " +
+            "v = v + 1 " +
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('HSET', KEYS[1], 'version', v, unpack(ARGV, 5)) " +
+            "redis.call('EXPIRE', KEYS[1], tonumber(ARGV[3])) " +
+            "if ARGV[2] == '1' then redis.call('SADD', KEYS[2], ARGV[1]) end " +
+            "return v", Long.class);
+
+    private static final long CONFLICT = -1;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    // 쓰기가 실패했는데 해시도 지우지 못한 사용자. DB에서 다시 채울 때까지 Redis를 읽지 않는다
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+
+    @Value("${cart.redis.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.redis.ttl-seconds:604800}")
+    private long ttlSeconds;
+
+    public CartStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StoredCart {
+
+        private final List<CartLineDTO> lines;
+
+        private final int cartTotal;
+
+        private final int totalAfterDiscount;
+
+        // 읽었을 때의 version (DB에서 읽었고 Redis를 채우지 못했으면 0)
+        private final long version;
+
+        // id 는 _uid, DB에서 읽은 장바구니면 cartproduct_id 도 된다
+        public CartLineDTO line(String id) {
+            return lines.stream()
+                    .filter(l -> id.equals(l.get_uid())
+                            || (l.getCartproductId() != null && id.equals(Long.toString(l.getCartproductId()))))
+                    .findFirst().orElse(null);
+        }
+    }
+
+    // 없거나 Redis를 쓸 수 없으면 null
+    public StoredCart get(String username) {
+
+        if (!enabled || stale.contains(username))
+            return null;
+
+        try {
+            Map<Object, Object> hash = redisTemplate.opsForHash().entries(KEY_PREFIX + username);
+            return hash.isEmpty() ? null : parse(hash);
+        } catch (RuntimeException e) {
+            log.warn("Cart store read failed for " + username + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 변경을 기록하고 write-behind 대상으로 표시한다. 실패하면 false (호출한 쪽이 DB에 쓴다).
+     * readVersion 이 null 이 아니면 그 사이 다른 쓰기가 있었을 때
+     * OptimisticLockingFailureException 을 던진다.
+     */
+    public boolean put(String username, Long readVersion, List<CartLineDTO> lines, int cartTotal,
+            int totalAfterDiscount) {
+
+        if (!enabled)
+            return false;
+
+        Long written = replace(username, lines, cartTotal, totalAfterDiscount, "1",
+                readVersion != null ? readVersion.toString() : "");
+
+        if (written == null) {
+            // 호출한 쪽이 DB에 쓰므로 남은 해시는 오래된 값이다
+            evict(username);
+            return false;
+        }
+
+        if (written == CONFLICT)
+            throw new OptimisticLockingFailureException(
+                    "Cart of " + username + " changed after version " + readVersion);
+
+        return true;
+    }
+
+    // DB에서 읽은 장바구니로 채운다 (이미 있으면 그대로 둔다). 채운 version, 채우지 못했으면 0
+    public long warm(String username, List<CartLineDTO> lines, int cartTotal, int totalAfterDiscount) {
+
+        Long written = replace(username, lines, cartTotal, totalAfterDiscount,
+                stale.contains(username) ? "2" : "0", "");
+
+        return written != null && written > 0 ? written : 0;
+    }
+
+    // 해시와 dirty 표시를 지운다. 지우지 못하면 다시 채울 때까지 이 인스턴스에서는 읽지 않는다
+    private void evict(String username) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + username);
+            redisTemplate.opsForSet().remove(DIRTY_KEY, username);
+            stale.remove(username);
+        } catch (RuntimeException e) {
+            log.warn("Cart store evict failed for " + username + ": " + e.getMessage());
+            stale.add(username);
+        }
+    }
+
+    public List<String> popDirty(int count) {
+
+        List<String> users = redisTemplate.opsForSet().pop(DIRTY_KEY, count);
+        return users != null ? users : List.of();
+    }
+
+    public void markDirty(String username) {
+        redisTemplate.opsForSet().add(DIRTY_KEY, username);
+    }
+
+    // 스크립트 결과, 쓸 수 없으면 null
+    private Long replace(String username, List<CartLineDTO> lines, int cartTotal, int totalAfterDiscount,
+            String mode, String readVersion) {
+
+        if (!enabled)
+            return null;
+
+        try {
+            List<String> args = new ArrayList<>(lines.size() * 2 + 8);
+            args.add(username);
+            args.add(mode);
+            args.add(Long.toString(ttlSeconds));
+            args.add(readVersion);
+            args.add("cartTotal");
+            args.add(Integer.toString(cartTotal));
+            args.add("totalAfterDiscount");
+            args.add(Integer.toString(totalAfterDiscount));
+
+            for (int i = 0; i < lines.size(); i++) {
+                CartLineDTO line = lines.get(i);
+                line.setPosition(i);
+                args.add(LINE_PREFIX + line.get_uid());
+                args.add(objectMapper.writeValueAsString(line));
+            }
+
+            Long written = redisTemplate.execute(REPLACE, List.of(KEY_PREFIX + username, DIRTY_KEY),
+                    args.toArray());
+            if (written != null && written > 0)
+                stale.remove(username);
+            return written;
+
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Cart store write failed for " + username + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private StoredCart parse(Map<Object, Object> hash) {
+
+        List<CartLineDTO> lines = new ArrayList<>();
+        int cartTotal = 0;
+        int totalAfterDiscount = 0;
+        long version = 0;
+
+        for (Map.Entry<Object, Object> e : hash.entrySet()) {
+            String field = e.getKey().toString();
+            String value = e.getValue().toString();
+
+            if (field.startsWith(LINE_PREFIX)) {
+                try {
+                    lines.add(objectMapper.readValue(value, CartLineDTO.class));
+                } catch (JsonProcessingException ex) {
+                    throw new IllegalStateException("Broken cart line " + field, ex);
+                }
+            } else if (field.equals("cartTotal")) {
+                cartTotal = Integer.parseInt(value);
+            } else if (field.equals("totalAfterDiscount")) {
+                totalAfterDiscount = Integer.parseInt(value);
+            } else if (field.equals("version")) {
+                version = Long.parseLong(value);
+            }
+        }
+
+        lines.sort(Comparator.comparingInt(CartLineDTO::getPosition));
+        return new StoredCart(lines, cartTotal, totalAfterDiscount, version);
+    }
+}
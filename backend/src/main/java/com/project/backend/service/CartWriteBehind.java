@@ -0,0 +1,113 @@
+package com.project.backend.service;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.backend.model.Cart;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Copies carts marked dirty in {@link CartStore} to MySQL, popping them in
+ * batches of {@code cart.redis.flush-batch}.
+ * A cart changed again while it is being flushed is marked dirty again,
+ * so the last state always reaches the database.
+ */
+@Slf4j
+@Component
+public class CartWriteBehind {
+
+    private final CartStore cartStore;
+
+    private final CartService cartService;
+
+    private final CartMutationLane cartLane;
+
+    private final TransactionTemplate tx;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cart-write-behind");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${cart.redis.flush-interval-ms:2000}")
+    private long flushIntervalMs;
+
+    @Value("${cart.redis.flush-batch:100}")
+    private int batchSize;
+
+    public CartWriteBehind(CartStore cartStore, CartService cartService, CartMutationLane cartLane,
+            PlatformTransactionManager transactionManager) {
+        this.cartStore = cartStore;
+        this.cartService = cartService;
+        this.cartLane = cartLane;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (cartStore.isEnabled())
+            scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void flush() {
+
+        List<String> users;
+        try {
+            users = cartStore.popDirty(batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Cart write-behind skipped: " + e.getMessage());
+            return;
+        }
+
+        if (users.isEmpty())
+            return;
+
+        // 장바구니마다 트랜잭션을 나눠 한 건의 실패가 배치 전체를 되돌리지 않게 한다
+        for (String username : users) {
+            try {
+                // 같은 사용자의 요청과 섞이지 않게 장바구니 변경 줄에 선다 (버전 충돌은 줄에서 재시도)
+                cartLane.run(username, () -> tx.execute(status -> write(username)));
+            } catch (RuntimeException e) {
+                log.warn("Cart write-behind failed for " + username + ", retrying: " + e.getMessage());
+                retry(username);
+            }
+        }
+    }
+
+    private void retry(String username) {
+        try {
+            cartStore.markDirty(username);
+        } catch (RuntimeException e) {
+            log.error("Cart write-behind lost " + username + ": " + e.getMessage());
+        }
+    }
+
+    private Cart write(String username) {
+
+        CartStore.StoredCart stored = cartStore.get(username);
+
+        // 만료됐거나 읽을 수 없으면 DB 쪽을 그대로 둔다
+        if (stored == null)
+            return null;
+
+        return cartService.persistCart(username, stored.getLines(), stored.getTotalAfterDiscount());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        if (cartStore.isEnabled())
+            flush();
+    }
+}
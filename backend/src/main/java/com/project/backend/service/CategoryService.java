@@ -3,10 +3,12 @@ package com.project.backend.service;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.project.backend.dto.CategoryDTO;
 import com.project.backend.dto.SubCategoryDTO;
+import com.project.backend.event.ProductChangedEvent;
 import com.project.backend.model.ProductCategory;
 import com.project.backend.model.SubCategory;
 import com.project.backend.repository.CategoryRepository;
@@ -20,10 +22,14 @@ public class CategoryService {
 
     private final SubCategoryRepository subCategoryRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Autowired
-    public CategoryService(CategoryRepository categoryRepository, SubCategoryRepository subCategoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, SubCategoryRepository subCategoryRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
         this.subCategoryRepository = subCategoryRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public boolean findSubCategory(String subCategoryName, String categoryId) {
@@ -50,6 +56,8 @@ public class CategoryService {
 
             category = categoryRepository.save(category);
 
+            // 검색 결과에 카테고리 목록이 들어 있으므로 전체 무효화
+            eventPublisher.publishEvent(new ProductChangedEvent(this, null, null));
         }
 
         return CategoryDTO.builder()
@@ -73,6 +81,8 @@ public class CategoryService {
 
         subCategoryRepository.save(subcategory);
 
+        eventPublisher.publishEvent(new ProductChangedEvent(this, null, null));
+
         return SubCategoryDTO.builder()
                 .name(subCategoryName)
                 .parent(CategoryDTO.builder()
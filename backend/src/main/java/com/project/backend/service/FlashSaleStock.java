@@ -0,0 +1,275 @@
+package com.project.backend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stock of flash-sale sizes as Redis counters, so a limited drop decrements
+ * {@code {stock}:size:{sizeId}} with a Lua script instead of queueing on the
+ * product_size row. Every change is added to {@code {stock}:pending} in the
+ * same script and {@link FlashSaleWriteBehind} applies the deltas to MySQL in
+ * batches. A size is armed while its counter exists; sizes without one go
+ * through MySQL as before. Enabled with {@code inventory.flash-sale.enabled=true}.
+ */
+@Slf4j
+@Component
+public class FlashSaleStock {
+
+    // 키를 모두 {stock} 해시 태그로 묶어 클러스터에서도 한 스크립트로 다룬다
+    private static final String SIZE_PREFIX = "{stock}:size:";
+
+    private static final String FLASH_KEY = "{stock}:flash";
+
+    private static final String PENDING_KEY = "{stock}:pending";
+
+    private static final String SOLD_KEY = "{stock}:sold";
+
+    private static final String FLUSH_LOCK_KEY = "{stock}:flush-lock";
+
+    // KEYS: size 카운터..., pending. ARGV: qty..., sizeId...
+    // 카운터가 있는 사이즈를 모두 확인한 뒤에만 차감한다 (하나라도 모자라면 'X', 아무것도 바꾸지 않는다)
+    // 결과는 줄마다 '1' (Redis 에서 차감) / '0' (카운터 없음, DB 로)
+    private static final DefaultRedisScript<String> TAKE = new DefaultRedisScript<>(
+            "local n = #KEYS - 1 " +
+            "local flags = {} " +
+            "for i = 1, n do " +
+            "  local v = redis.call('GET', KEYS[i]) " +
+            "  if v then " +
+            "    if tonumber(v) < tonumber(ARGV[i]) then return 'X' end " +
+            "    flags[i] = '1' " +
+            "  else flags[i] = '0' end " +
+            "end " +
+            "for i = 1, n do " +
+            "  if flags[i] == '1' then " +
+            "    redis.call('DECRBY', KEYS[i], ARGV[i]) " +
+            "    redis.call('HINCRBY', KEYS[n + 1], ARGV[n + i], -tonumber(ARGV[i])) " +
+            "  end " +
+            "end " +
+            "return table.concat(flags)", String.class);
+
+    // TAKE 의 반대, 카운터가 없어진 (해제된) 사이즈는 '0'
+    private static final DefaultRedisScript<String> GIVE = new DefaultRedisScript<>(
+            "local n = #KEYS - 1 " +
+            "local flags = {} " +
+            "for i = 1, n do " +
+            "  if redis.call('EXISTS', KEYS[i]) == 1 then " +
+            "    redis.call('INCRBY', KEYS[i], ARGV[i]) " +
+            "    redis.call('HINCRBY', KEYS[n + 1], ARGV[n + i], tonumber(ARGV[i])) " +
+            "    flags[i] = '1' " +
+            "  else flags[i] = '0' end " +
+            "end " +
+            "return table.concat(flags)", String.class);
+
+    // KEYS: size 카운터..., flash, pending. ARGV: quantity..., sizeId...
+    // 이미 있는 카운터는 두고, DB에 아직 반영되지 않은 차감분을 빼고 채운다
+    private static final DefaultRedisScript<Long> ARM = new DefaultRedisScript<>(
+            "local n = #KEYS - 2 " +
+            "for i = 1, n do " +
+            "  local pending = tonumber(redis.call('HGET', KEYS[n + 2], ARGV[n + i]) or '0') " +
+            "  redis.call('SET', KEYS[i], tonumber(ARGV[i]) + pending, 'NX') " +
+            "  redis.call('SADD', KEYS[n + 1], ARGV[n + i]) " +
+            "end " +
+            "return n", Long.class);
+
+    // 내 토큰일 때만 지운다 (만료 뒤 다른 인스턴스가 잡은 잠금은 두고)
+    private static final DefaultRedisScript<Long> UNLOCK = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0", Long.class);
+
+    // 쌓인 변경분을 읽고 비운다
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> POP = new DefaultRedisScript<>(
+            "local v = redis.call('HGETALL', KEYS[1]) " +
+            "redis.call('DEL', KEYS[1]) " +
+            "return v", List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    // 잠금을 건너뛸지 정하는 데만 쓴다, 재고 판단은 항상 스크립트가 한다
+    private volatile Set<Long> armed = Set.of();
+
+    @Value("${inventory.flash-sale.enabled:false}")
+    private boolean enabled;
+
+    public FlashSaleStock(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isArmed(Long sizeId) {
+        return enabled && armed.contains(sizeId);
+    }
+
+    /**
+     * Takes the armed sizes of {@code bySize} from Redis, all or none, and
+     * returns the ones it took; the caller takes the rest from MySQL.
+     * Returns null when an armed size does not have enough stock.
+     */
+    public Set<Long> take(Map<Long, Integer> bySize) {
+
+        if (!enabled || bySize.isEmpty())
+            return Set.of();
+
+        List<Long> sizeIds = new ArrayList<>(bySize.keySet());
+        String flags = redisTemplate.execute(TAKE, keys(sizeIds), args(sizeIds, bySize));
+
+        if ("X".equals(flags))
+            return null;
+
+        return flagged(sizeIds, flags, '1');
+    }
+
+    // 돌려준다. 카운터가 없어 돌려주지 못한 사이즈를 반환 (호출한 쪽이 DB에 더한다)
+    public Set<Long> give(Map<Long, Integer> bySize) {
+
+        if (!enabled || bySize.isEmpty())
+            return new HashSet<>(bySize.keySet());
+
+        List<Long> sizeIds = new ArrayList<>(bySize.keySet());
+        String flags = redisTemplate.execute(GIVE, keys(sizeIds), args(sizeIds, bySize));
+
+        return flagged(sizeIds, flags, '0');
+    }
+
+    // 결제된 수량, product_sku.sold 는 write-behind 가 한꺼번에 올린다
+    public void addSold(Map<Long, Integer> bySize) {
+        bySize.forEach((sizeId, qty) -> redisTemplate.opsForHash().increment(SOLD_KEY, sizeId.toString(), qty));
+    }
+
+    // DB 재고(sizeId -> quantity)로 카운터를 만든다
+    public void arm(Map<Long, Integer> stock) {
+
+        if (!enabled)
+            throw new RuntimeException("Flash sale mode is disabled");
+        if (stock.isEmpty())
+            return;
+
+        List<Long> sizeIds = new ArrayList<>(stock.keySet());
+        List<String> keys = keys(sizeIds);
+        keys.set(keys.size() - 1, FLASH_KEY);
+        keys.add(PENDING_KEY);
+
+        redisTemplate.execute(ARM, keys, args(sizeIds, stock));
+        refresh();
+    }
+
+    // 카운터를 지운다. 남은 차감분은 write-behind 가 계속 DB에 반영한다
+    public void disarm(Set<Long> sizeIds) {
+
+        if (!enabled || sizeIds.isEmpty())
+            return;
+
+        List<String> keys = new ArrayList<>();
+        List<String> members = new ArrayList<>();
+        for (Long sizeId : sizeIds) {
+            keys.add(SIZE_PREFIX + sizeId);
+            members.add(sizeId.toString());
+        }
+
+        redisTemplate.delete(keys);
+        redisTemplate.opsForSet().remove(FLASH_KEY, members.toArray());
+        refresh();
+    }
+
+    // 다른 인스턴스가 바꾼 대상 목록을 다시 읽는다
+    public void refresh() {
+
+        if (!enabled)
+            return;
+
+        Set<String> members = redisTemplate.opsForSet().members(FLASH_KEY);
+        Set<Long> sizeIds = new HashSet<>();
+        if (members != null)
+            members.forEach(m -> sizeIds.add(Long.parseLong(m)));
+        armed = sizeIds;
+    }
+
+    // 인스턴스 사이에서 write-behind 반영과 카운터 만들기를 한 번에 하나만 한다. 얻으면 토큰, 아니면 null
+    public String lockFlush(long leaseMs) {
+
+        String token = UUID.randomUUID().toString();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(FLUSH_LOCK_KEY, token, Duration.ofMillis(leaseMs));
+        return Boolean.TRUE.equals(locked) ? token : null;
+    }
+
+    public void unlockFlush(String token) {
+        redisTemplate.execute(UNLOCK, List.of(FLUSH_LOCK_KEY), token);
+    }
+
+    public Map<Long, Integer> popPending() {
+        return pop(PENDING_KEY);
+    }
+
+    public Map<Long, Integer> popSold() {
+        return pop(SOLD_KEY);
+    }
+
+    // DB 반영에 실패한 변경분을 되돌려 놓는다
+    public void requeue(Map<Long, Integer> pending, Map<Long, Integer> sold) {
+        pending.forEach((sizeId, delta) -> redisTemplate.opsForHash().increment(PENDING_KEY, sizeId.toString(), delta));
+        sold.forEach((sizeId, qty) -> redisTemplate.opsForHash().increment(SOLD_KEY, sizeId.toString(), qty));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Integer> pop(String key) {
+
+        List<String> values = redisTemplate.execute(POP, List.of(key));
+
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        if (values != null) {
+            for (int i = 0; i + 1 < values.size(); i += 2) {
+                int delta = Integer.parseInt(values.get(i + 1));
+                if (delta != 0)
+                    deltas.put(Long.parseLong(values.get(i)), delta);
+            }
+        }
+        return deltas;
+    }
+
+    // size 카운터 키들 + pending
+    private List<String> keys(List<Long> sizeIds) {
+
+        List<String> keys = new ArrayList<>(sizeIds.size() + 2);
+        for (Long sizeId : sizeIds)
+            keys.add(SIZE_PREFIX + sizeId);
+        keys.add(PENDING_KEY);
+        return keys;
+    }
+
+    // 수량들 뒤에 sizeId 들
+    private Object[] args(List<Long> sizeIds, Map<Long, Integer> values) {
+
+        Object[] args = new Object[sizeIds.size() * 2];
+        for (int i = 0; i < sizeIds.size(); i++) {
+            args[i] = values.get(sizeIds.get(i)).toString();
+            args[sizeIds.size() + i] = sizeIds.get(i).toString();
+        }
+        return args;
+    }
+
+    private Set<Long> flagged(List<Long> sizeIds, String flags, char flag) {
+
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i < sizeIds.size(); i++) {
+            if (flags != null && flags.charAt(i) == flag)
+                result.add(sizeIds.get(i));
+        }
+        return result;
+    }
+}
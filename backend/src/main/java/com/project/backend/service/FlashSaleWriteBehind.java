@@ -0,0 +1,165 @@
+package com.project.backend.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.backend.repository.ProductSizeRepository;
+import com.project.backend.repository.ProductSkuRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies the stock and sold deltas queued by {@link FlashSaleStock} to
+ * product_size.quantity and product_sku.sold, one transaction per flush,
+ * so a flash sale costs one row update per size per interval instead of
+ * one per checkout. Deltas of a failed flush are queued again. A flush
+ * holds this object's monitor and a Redis lease, so {@link #exclusive}
+ * callers never see the pending deltas popped but not yet in MySQL.
+ */
+@Slf4j
+@Component
+public class FlashSaleWriteBehind {
+
+    private final FlashSaleStock flashSaleStock;
+
+    private final ProductSizeRepository productSizeRepository;
+
+    private final ProductSkuRepository productSkuRepository;
+
+    private final TransactionTemplate tx;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "flash-sale-write-behind");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${inventory.flash-sale.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${inventory.flash-sale.flush-lock-ms:30000}")
+    private long flushLockMs;
+
+    public FlashSaleWriteBehind(FlashSaleStock flashSaleStock, ProductSizeRepository productSizeRepository,
+            ProductSkuRepository productSkuRepository, PlatformTransactionManager transactionManager) {
+        this.flashSaleStock = flashSaleStock;
+        this.productSizeRepository = productSizeRepository;
+        this.productSkuRepository = productSkuRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (flashSaleStock.isEnabled())
+            scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    /**
+     * Runs the action while no flush runs on this or another instance, so
+     * product_size and {@code {stock}:pending} can be read as one state.
+     * Waits up to one lease for a flush on another instance to finish.
+     */
+    public synchronized <T> T exclusive(Supplier<T> action) {
+
+        long deadline = System.currentTimeMillis() + flushLockMs;
+        String token = flashSaleStock.lockFlush(flushLockMs);
+        while (token == null) {
+            if (System.currentTimeMillis() >= deadline)
+                throw new RuntimeException("Flash sale stock is being flushed, please retry");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Flash sale stock lock interrupted");
+            }
+            token = flashSaleStock.lockFlush(flushLockMs);
+        }
+
+        try {
+            return action.get();
+        } finally {
+            unlock(token);
+        }
+    }
+
+    public synchronized void flush() {
+
+        if (!flashSaleStock.isEnabled())
+            return;
+
+        String token;
+        try {
+            token = flashSaleStock.lockFlush(flushLockMs);
+        } catch (RuntimeException e) {
+            log.warn("Flash sale write-behind skipped: " + e.getMessage());
+            return;
+        }
+
+        // 다른 인스턴스가 반영 중이면 다음 주기에
+        if (token == null)
+            return;
+
+        try {
+            apply();
+        } finally {
+            unlock(token);
+        }
+    }
+
+    private void apply() {
+
+        Map<Long, Integer> pending;
+        Map<Long, Integer> sold;
+        try {
+            flashSaleStock.refresh();
+            // size_id 오름차순으로 갱신해 주문 트랜잭션과 행 잠금 순서를 맞춘다
+            pending = new TreeMap<>(flashSaleStock.popPending());
+            sold = new TreeMap<>(flashSaleStock.popSold());
+        } catch (RuntimeException e) {
+            log.warn("Flash sale write-behind skipped: " + e.getMessage());
+            return;
+        }
+
+        if (pending.isEmpty() && sold.isEmpty())
+            return;
+
+        try {
+            tx.executeWithoutResult(status -> {
+                pending.forEach(productSizeRepository::addQuantity);
+                sold.forEach(productSkuRepository::addSold);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Flash sale write-behind failed, requeueing " + pending.size() + " sizes: " + e.getMessage());
+            try {
+                flashSaleStock.requeue(pending, sold);
+            } catch (RuntimeException requeueFailure) {
+                log.error("Flash sale deltas lost: pending=" + pending + " sold=" + sold);
+            }
+        }
+    }
+
+    private void unlock(String token) {
+        try {
+            flashSaleStock.unlockFlush(token);
+        } catch (RuntimeException e) {
+            log.warn("Flash sale flush lock not released, it expires in " + flushLockMs + " ms: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,519 @@
+package com.project.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.backend.constants.OrderStatusEnum;
+import com.project.backend.constants.ReservationStatus;
+import com.project.backend.event.ProductChangedEvent;
+import com.project.backend.model.StockReservation;
+import com.project.backend.repository.OrderRepository;
+import com.project.backend.repository.ProductRepository;
+import com.project.backend.repository.ProductSizeRepository;
+import com.project.backend.repository.ProductSkuRepository;
+import com.project.backend.repository.StockReservationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reserves product_size stock when an order is created with a conditional
+ * {@code quantity = quantity - ? where quantity >= ?}, commits the reservation
+ * (and product_sku.sold) when the order is paid, and returns stock of
+ * reservations left unpaid for {@code inventory.reservation.ttl-seconds}.
+ * Size rows are guarded by striped in-process locks taken in ascending stripe
+ * order, and rows are updated in ascending size_id order, so concurrent
+ * orders for the same hot sizes queue instead of deadlocking.
+ * Sizes armed in {@link FlashSaleStock} skip both and are counted in Redis.
+ */
+@Slf4j
+@Service
+public class InventoryService {
+
+    private final ProductSizeRepository productSizeRepository;
+
+    private final ProductRepository productRepository;
+
+    private final ProductSkuRepository productSkuRepository;
+
+    private final StockReservationRepository stockReservationRepository;
+
+    private final OrderRepository orderRepository;
+
+    private final ApplicationEventPublisher publisher;
+
+    private final FlashSaleStock flashSaleStock;
+
+    private final FlashSaleWriteBehind flashSaleWriteBehind;
+
+    private final TransactionTemplate tx;
+
+    private final TransactionTemplate requiresNew;
+
+    private final ReentrantLock[] stripes;
+
+    private final Counter reserved;
+    private final Counter rejected;
+    private final Counter committed;
+    private final Counter released;
+    private final Timer wait;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "stock-reservation-sweep");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${inventory.reservation.ttl-seconds:900}")
+    private long ttlSeconds;
+
+    @Value("${inventory.reservation.sweep-interval-ms:30000}")
+    private long sweepIntervalMs;
+
+    @Value("${inventory.reservation.sweep-batch:200}")
+    private int sweepBatch;
+
+    @Value("${inventory.lock.wait-ms:3000}")
+    private long lockWaitMs;
+
+    @Value("${inventory.flash-sale.sku-ids:}")
+    private List<Long> flashSaleSkuIds;
+
+    public InventoryService(ProductSizeRepository productSizeRepository, ProductRepository productRepository,
+            ProductSkuRepository productSkuRepository, StockReservationRepository stockReservationRepository,
+            OrderRepository orderRepository, ApplicationEventPublisher publisher, FlashSaleStock flashSaleStock,
+            FlashSaleWriteBehind flashSaleWriteBehind, PlatformTransactionManager transactionManager,
+            MeterRegistry registry,
+            @Value("${inventory.lock.stripes:256}") int stripeCount) {
+        this.productSizeRepository = productSizeRepository;
+        this.productRepository = productRepository;
+        this.productSkuRepository = productSkuRepository;
+        this.stockReservationRepository = stockReservationRepository;
+        this.orderRepository = orderRepository;
+        this.publisher = publisher;
+        this.flashSaleStock = flashSaleStock;
+        this.flashSaleWriteBehind = flashSaleWriteBehind;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++)
+            stripes[i] = new ReentrantLock(true);
+
+        this.reserved = Counter.builder("inventory.reservation.created").register(registry);
+        this.rejected = Counter.builder("inventory.reservation.rejected").register(registry);
+        this.committed = Counter.builder("inventory.reservation.committed").register(registry);
+        this.released = Counter.builder("inventory.reservation.released").register(registry);
+        this.wait = Timer.builder("inventory.lock.wait").register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::releaseExpired, sweepIntervalMs, sweepIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    // inventory.flash-sale.sku-ids 의 sku 를 시작할 때 Redis 에 올린다 (이미 있는 카운터는 그대로)
+    @EventListener(ApplicationReadyEvent.class)
+    public void armConfiguredFlashSale() {
+
+        if (!flashSaleStock.isEnabled())
+            return;
+
+        try {
+            flashSaleStock.refresh();
+            for (Long skuId : flashSaleSkuIds)
+                armFlashSale(skuId);
+        } catch (RuntimeException e) {
+            log.warn("Flash sale stock not loaded: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the sizes of a SKU to Redis counters, loaded from product_size
+     * under the size locks so no MySQL reservation is half done meanwhile,
+     * and outside any write-behind flush so the pending deltas added to the
+     * counters are exactly the ones not yet in the rows read.
+     * Returns the number of sizes armed.
+     */
+    public int armFlashSale(Long skuId) {
+
+        Set<Long> sizeIds = new TreeSet<>();
+        for (Object[] row : productSizeRepository.findStockRows(skuId))
+            sizeIds.add((Long) row[0]);
+
+        if (sizeIds.isEmpty())
+            throw new RuntimeException("Sku not found");
+
+        return flashSaleWriteBehind.exclusive(() -> locked(sizeIds, () -> {
+
+            Map<Long, Integer> stock = new TreeMap<>();
+            for (Object[] row : productSizeRepository.findStockRows(skuId))
+                stock.put((Long) row[0], (Integer) row[1]);
+
+            flashSaleStock.arm(stock);
+            return stock.size();
+        }));
+    }
+
+    // Redis 카운터를 지우고 쌓인 차감분을 바로 DB에 반영한다, 이후 주문은 DB 재고로 간다
+    public int disarmFlashSale(Long skuId) {
+
+        Set<Long> sizeIds = new TreeSet<>();
+        for (Object[] row : productSizeRepository.findStockRows(skuId))
+            sizeIds.add((Long) row[0]);
+
+        flashSaleStock.disarm(sizeIds);
+        flashSaleWriteBehind.flush();
+        return sizeIds.size();
+    }
+
+    // 주문 한 줄이 잡을 재고
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+        private final Long sizeId;
+        private final Long productId;
+        private final int qty;
+    }
+
+    /**
+     * Runs the action holding the stripes of the given sizes. Callers open
+     * their transaction inside, so the locks outlive the commit and requests
+     * waiting for a hot size do not hold a connection while they wait.
+     */
+    public <T> T locked(Collection<Long> sizeIds, Supplier<T> action) {
+
+        // 줄무늬 번호 오름차순으로 잡는다: 두 주문이 서로의 잠금을 기다리는 일이 없다
+        // 플래시 세일 사이즈는 Lua 스크립트가 원자적으로 처리하므로 잠그지 않는다
+        Set<Integer> indexes = new TreeSet<>();
+        for (Long sizeId : sizeIds)
+            if (!flashSaleStock.isArmed(sizeId))
+                indexes.add(Math.floorMod(Long.hashCode(sizeId), stripes.length));
+
+        List<ReentrantLock> held = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock(lockWaitMs, TimeUnit.MILLISECONDS))
+                    throw new RuntimeException("Stock is busy, please retry");
+                held.add(lock);
+            }
+            wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            return action.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Stock reservation interrupted");
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--)
+                held.get(i).unlock();
+        }
+    }
+
+    /**
+     * Takes stock for every line of the order, or none: a size without enough
+     * quantity fails the whole reservation. Joins the caller's transaction if
+     * there is one, so the order rows roll back with it.
+     */
+    public void reserve(Long orderId, List<Line> lines) {
+
+        // 같은 사이즈는 합쳐 한 번만 갱신하고 size_id 오름차순으로 행 잠금을 잡는다
+        Map<Long, Line> bySize = new TreeMap<>();
+        for (Line line : lines) {
+            if (line.getSizeId() == null || line.getQty() <= 0)
+                throw new RuntimeException("Invalid quantity");
+            bySize.merge(line.getSizeId(), line,
+                    (a, b) -> new Line(a.getSizeId(), a.getProductId(), a.getQty() + b.getQty()));
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(ttlSeconds);
+
+        Map<Long, Integer> qtys = new TreeMap<>();
+        bySize.forEach((sizeId, line) -> qtys.put(sizeId, line.getQty()));
+
+        tx.executeWithoutResult(status -> {
+
+            take(qtys);
+
+            List<StockReservation> reservations = new ArrayList<>();
+            for (Line line : bySize.values()) {
+
+                reservations.add(StockReservation.builder()
+                        .orderId(orderId)
+                        .sizeId(line.getSizeId())
+                        .productId(line.getProductId())
+                        .qty(line.getQty())
+                        .status(ReservationStatus.RESERVED)
+                        .expiresAt(expiresAt)
+                        .build());
+            }
+
+            stockReservationRepository.saveAll(reservations);
+        });
+
+        reserved.increment(bySize.size());
+    }
+
+    /**
+     * Marks the order's reservations sold and adds them to product_sku.sold,
+     * then runs {@code paid} in the same transaction and under the same size
+     * locks, so the payment is recorded together with the stock. A reservation
+     * that already expired takes its stock again; if the size sold out in the
+     * meantime it is marked BACKORDERED and {@code paid} gets {@code false}.
+     * Orders created before reservations existed have none and get {@code true}.
+     */
+    public <T> T commit(Long orderId, Function<Boolean, T> paid) {
+
+        List<StockReservation> reservations = new ArrayList<>(stockReservationRepository.findByOrderId(orderId));
+        if (reservations.isEmpty())
+            return tx.execute(status -> paid.apply(true));
+
+        reservations.sort(Comparator.comparing(StockReservation::getSizeId));
+        Set<Long> sizeIds = new LinkedHashSet<>();
+        reservations.forEach(r -> sizeIds.add(r.getSizeId()));
+
+        // 플래시 세일 사이즈의 sold 는 커밋 뒤 Redis 에 쌓아 write-behind 로 올린다
+        Map<Long, Integer> flashSold = new HashMap<>();
+
+        Set<Long> changed = new LinkedHashSet<>();
+
+        T result = locked(sizeIds, () -> tx.execute(status -> {
+
+            boolean inStock = true;
+            for (StockReservation r : reservations) {
+
+                if (stockReservationRepository.transition(r.getReservationId(), ReservationStatus.RESERVED,
+                        ReservationStatus.COMMITTED) == 0) {
+
+                    // 이미 결제 처리된 예약
+                    if (stockReservationRepository.transition(r.getReservationId(), ReservationStatus.RELEASED,
+                            ReservationStatus.COMMITTED) == 0)
+                        continue;
+
+                    // 결제 전에 만료돼 재고를 돌려준 예약: 남아 있으면 다시 잡고, 품절이면 표시만 한다
+                    // (한 사이즈만 잡으므로 실패하면 아무것도 차감되지 않았다)
+                    try {
+                        take(Map.of(r.getSizeId(), r.getQty()));
+                    } catch (RuntimeException e) {
+                        stockReservationRepository.transition(r.getReservationId(), ReservationStatus.COMMITTED,
+                                ReservationStatus.BACKORDERED);
+                        inStock = false;
+                        continue;
+                    }
+                }
+
+                committed.increment();
+                if (flashSaleStock.isArmed(r.getSizeId())) {
+                    flashSold.merge(r.getSizeId(), r.getQty(), Integer::sum);
+                    continue;
+                }
+
+                productSkuRepository.addSold(r.getSizeId(), r.getQty());
+                changed.add(r.getProductId());
+            }
+            return paid.apply(inStock);
+        }));
+
+        if (!flashSold.isEmpty()) {
+            try {
+                flashSaleStock.addSold(flashSold);
+            } catch (RuntimeException e) {
+                log.warn("Flash sale sold count not queued, writing to MySQL: " + e.getMessage());
+                flashSold.forEach(productSkuRepository::addSold);
+            }
+        }
+
+        // 플래시 세일 상품은 결제마다 다시 만들지 않는다
+        publishChanged(changed);
+        return result;
+    }
+
+    // 결제되지 않고 만료된 예약의 재고를 돌려주고, 확정이 미뤄진 결제의 재고를 확정한다
+    public synchronized void releaseExpired() {
+
+        reconcilePaid();
+
+        try {
+            List<StockReservation> expired = new ArrayList<>(stockReservationRepository.findExpired(
+                    ReservationStatus.RESERVED, LocalDateTime.now(), PageRequest.of(0, sweepBatch)));
+            if (expired.isEmpty())
+                return;
+
+            expired.sort(Comparator.comparing(StockReservation::getSizeId));
+            Set<Long> sizeIds = new LinkedHashSet<>();
+            expired.forEach(r -> sizeIds.add(r.getSizeId()));
+
+            // 플래시 세일 사이즈는 커밋 뒤 Redis 카운터에 돌려준다
+            Map<Long, Integer> flashGive = new HashMap<>();
+
+            Set<Long> changed = locked(sizeIds, () -> tx.execute(status -> {
+
+                Set<Long> products = new LinkedHashSet<>();
+                for (StockReservation r : expired) {
+
+                    // 그 사이 결제됐으면 건너뛴다
+                    if (stockReservationRepository.transitionUnpaid(r.getReservationId(),
+                            ReservationStatus.RESERVED, ReservationStatus.RELEASED) == 0)
+                        continue;
+
+                    released.increment();
+                    if (flashSaleStock.isArmed(r.getSizeId())) {
+                        flashGive.merge(r.getSizeId(), r.getQty(), Integer::sum);
+                        continue;
+                    }
+
+                    productSizeRepository.addQuantity(r.getSizeId(), r.getQty());
+                    products.add(r.getProductId());
+                }
+                return products;
+            }));
+
+            giveBack(flashGive);
+
+            publishChanged(changed);
+
+        } catch (RuntimeException e) {
+            log.warn("Stock reservation sweep failed: " + e.getMessage());
+        }
+    }
+
+    // 결제 때 재고를 확정하지 못한 (STOCK_PENDING) 주문을 다시 확정한다. 품절이면 BACKORDERED
+    private void reconcilePaid() {
+
+        List<Long> orderIds;
+        try {
+            orderIds = orderRepository.findIdsByOrderStatus(OrderStatusEnum.STOCK_PENDING,
+                    PageRequest.of(0, sweepBatch));
+        } catch (RuntimeException e) {
+            log.warn("Paid order reconcile skipped: " + e.getMessage());
+            return;
+        }
+
+        for (Long orderId : orderIds) {
+            try {
+                commit(orderId, inStock -> orderRepository.updateOrderStatus(orderId, OrderStatusEnum.STOCK_PENDING,
+                        inStock ? OrderStatusEnum.NOT_PROCESSED : OrderStatusEnum.BACKORDERED));
+            } catch (RuntimeException e) {
+                log.warn("Stock of paid order " + orderId + " still not committed: " + e.getMessage());
+            }
+        }
+    }
+
+    // 플래시 세일 사이즈는 Redis, 나머지는 조건부 UPDATE 로 차감, 트랜잭션이 되돌려지면 Redis 차감분도 돌려준다
+    private void take(Map<Long, Integer> qtys) {
+
+        Set<Long> flash = flashSaleStock.take(qtys);
+        if (flash == null) {
+            rejected.increment();
+            throw new RuntimeException("Out of stock");
+        }
+
+        if (!flash.isEmpty()) {
+            Map<Long, Integer> taken = new HashMap<>();
+            flash.forEach(sizeId -> taken.put(sizeId, qtys.get(sizeId)));
+
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED)
+                        giveBack(taken);
+                }
+            });
+        }
+
+        for (Map.Entry<Long, Integer> e : qtys.entrySet()) {
+            if (flash.contains(e.getKey()))
+                continue;
+
+            if (productSizeRepository.reserve(e.getKey(), e.getValue()) == 0) {
+                rejected.increment();
+                throw new RuntimeException("Out of stock");
+            }
+        }
+    }
+
+    // 그 사이 카운터가 내려갔으면 (해제) 차감분이 DB에 반영됐거나 될 것이므로 DB에 더한다
+    private void giveBack(Map<Long, Integer> qtys) {
+
+        if (qtys.isEmpty())
+            return;
+
+        Set<Long> missed;
+        try {
+            missed = flashSaleStock.give(qtys);
+        } catch (RuntimeException e) {
+            log.error("Flash sale stock not returned: " + qtys + ": " + e.getMessage());
+            return;
+        }
+
+        // 주문 트랜잭션이 끝나는 중에도 불릴 수 있어 따로 커밋한다
+        if (!missed.isEmpty())
+            requiresNew.executeWithoutResult(status -> missed.forEach(
+                    sizeId -> productSizeRepository.addQuantity(sizeId, qtys.get(sizeId))));
+    }
+
+    // 상품마다 카테고리를 붙여 알린다: categoryId 가 없으면 검색 캐시가 통째로 비워진다
+    // 재고 변경(STOCK)이라 가격 엔진과 가격 인덱스는 건너뛴다. 트랜잭션 안에서 불리면 커밋된 뒤에 알린다
+    private void publishChanged(Collection<Long> productIds) {
+
+        if (productIds.isEmpty())
+            return;
+
+        List<ProductChangedEvent> events = new ArrayList<>();
+        for (Object[] row : productRepository.findCategoryRows(productIds))
+            events.add(new ProductChangedEvent(this, (Long) row[0], (Long) row[1], ProductChangedEvent.Kind.STOCK));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            events.forEach(publisher::publishEvent);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                events.forEach(publisher::publishEvent);
+            }
+        });
+    }
+}
@@ -2,21 +2,34 @@ package com.project.backend.service;
 
 import java.util.Optional;
 import java.util.List;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.project.backend.constants.OrderStatusEnum;
 import com.project.backend.constants.PaymentResultStatus;
 import com.project.backend.constants.StatusMessages;
 import com.project.backend.dto.AddressDTO;
+import com.project.backend.dto.CartLineDTO;
 import com.project.backend.dto.CartProductDTO;
 import com.project.backend.dto.ColorAttributeDTO;
+import com.project.backend.dto.CursorPageDTO;
 import com.project.backend.dto.OrderDTO;
+import com.project.backend.dto.OrderSummaryDTO;
 import com.project.backend.dto.OrderedProductDTO;
 import com.project.backend.dto.PaymentResultDTO;
+import com.project.backend.dto.SkuPriceDTO;
 import com.project.backend.dto.UserDTO;
-import com.project.backend.model.CartProduct;
 import com.project.backend.model.Coupon;
 import com.project.backend.model.Order;
 import com.project.backend.model.OrderedProduct;
@@ -33,6 +46,7 @@ import com.project.backend.repository.ProductRepository;
 import com.project.backend.repository.ShippingAddressRepository;
 import com.project.backend.repository.UserRepository;
 import com.project.backend.security.request.OrderRequest;
+import com.project.backend.util.PageCursor;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -55,9 +69,21 @@ public class OrderService {
 
     private final ShippingAddressRepository shippingAddressRepository;
 
+    private final PricingEngine pricingEngine;
+
+    private final CartService cartService;
+
+    private final InventoryService inventoryService;
+
+    private final SkuPricingService skuPricingService;
+
+    private final TransactionTemplate tx;
+
     @Autowired
     public OrderService(OrderRepository orderRepository, UserRepository userRepository,
-            ProductRepository productRepository, ShippingAddressRepository shippingAddressRepository, PaymentRepository paymentRepository, OrderedProductRepository orderedProductRepository, CartProductRepository cartProductRepository) {
+            ProductRepository productRepository, ShippingAddressRepository shippingAddressRepository, PaymentRepository paymentRepository, OrderedProductRepository orderedProductRepository, CartProductRepository cartProductRepository,
+            PricingEngine pricingEngine, CartService cartService, InventoryService inventoryService,
+            SkuPricingService skuPricingService, PlatformTransactionManager transactionManager) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.orderedProductRepository = orderedProductRepository;
@@ -65,6 +91,11 @@ public class OrderService {
         this.paymentRepository = paymentRepository;
         this.cartProductRepository = cartProductRepository;
         this.shippingAddressRepository = shippingAddressRepository;
+        this.pricingEngine = pricingEngine;
+        this.cartService = cartService;
+        this.inventoryService = inventoryService;
+        this.skuPricingService = skuPricingService;
+        this.tx = new TransactionTemplate(transactionManager);
     }
 
     public Order createOrder(OrderRequest request, String username) {
@@ -85,8 +116,7 @@ public class OrderService {
             order.setTotal(request.getTotal());
             order.setTotalBeforeDiscount(request.getTotalBeforeDiscount());
 
-            user.get().getOrderLists().add(order);
-
+            // 역방향 컬렉션 (User.orderLists, ShippingAddress.orders) 은 건드리지 않는다: 주문 이력 전체를 읽게 된다
             order.setUser(user.get());
 
             AddressDTO shippingAddress = request.getShippingAddress();
@@ -94,9 +124,6 @@ public class OrderService {
             .orElseThrow(()->new RuntimeException("Shipping address not found"));
             ;
 
-            existedAddress.getOrders().add(order);
-
-            
             order.setShippingAddress(existedAddress);
             
                         
@@ -108,14 +135,37 @@ public class OrderService {
            
             
             order.setPaymentResult(pr);
-         
 
-            paymentRepository.save(pr);
+            // Redis 모드면 Redis의 장바구니 (DB 반영 전일 수 있다)
+            CartStore.StoredCart cart = cartService.readCart(username);
 
-            List<OrderedProduct> ordered = new ArrayList<>();
-                        
+            // 줄마다 조회하지 않고 장바구니 줄과 상품을 한 번에 확인한 뒤에 쓴다
+            List<CartLineDTO> lines = new ArrayList<>();
             for (CartProductDTO p : request.getProducts()) {
 
+                CartLineDTO cartLine = cart != null ? cart.line(p.getId()) : null;
+                if (cartLine == null)
+                    throw new RuntimeException("Product not found in cart.");
+
+                lines.add(cartLine);
+            }
+
+            Set<Long> productIds = lines.stream().map(CartLineDTO::getProductId).collect(Collectors.toSet());
+            Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                    .collect(Collectors.toMap(Product::getProductId, product -> product));
+
+            List<OrderedProduct> ordered = new ArrayList<>();
+            List<InventoryService.Line> stock = new ArrayList<>();
+
+            for (int i = 0; i < lines.size(); i++) {
+
+                CartProductDTO p = request.getProducts().get(i);
+                CartLineDTO cartLine = lines.get(i);
+
+                Product data = products.get(cartLine.getProductId());
+                if (data == null)
+                    throw new RuntimeException("Product not found");
+
                 OrderedProduct op = new OrderedProduct();
 
                 ProductColorAttribute color = ProductColorAttribute.builder()
@@ -123,48 +173,58 @@ public class OrderService {
                 .color(p.getColor().getColor())
                 .colorImage(p.getColor().getColorImage()).build();
 
-                //color.getOrderedProducts().add(op);
-                
                 op.setName(p.getName());
                 op.setColor(color);
                 op.setImage(p.getImage());
-                op.setPrice(p.getPrice());
                 op.setQty(p.getQty());
                 op.setSize(p.getSize());
 
-                
-
-                CartProduct cartPrdouct = cartProductRepository.findById(Long.parseLong(p.getId()))
-                .orElseThrow(()->new RuntimeException("Product not found in cart."));
-                
-                Product data= productRepository.findById(cartPrdouct.getProduct().getProductId())
-                .orElseThrow(()->new RuntimeException("Product not found"));
-                                
-                op.setProduct(data);            
+                // 단가는 클라이언트 값 대신 가격 엔진 (없으면 장바구니 저장 시점 가격)
+                int price = cartLine.getSizeId() != null ? pricingEngine.price(cartLine.getSizeId())
+                        : PricingEngine.UNKNOWN;
+                op.setPrice(price != PricingEngine.UNKNOWN ? price : cartLine.getPrice());
 
-                data.getOrderedProducts().add(op);
-                    
-                ordered.add(op);
+                // Product.orderedProducts 도 마찬가지로 채우지 않는다 (상품의 판매 이력 전체)
+                op.setProduct(data);
                 op.setOrder(order);
-                orderedProductRepository.save(op);
 
-                
-                
+                ordered.add(op);
+                stock.add(new InventoryService.Line(sizeIdOf(cartLine), cartLine.getProductId(), op.getQty()));
             }
 
-            order.setOrderedProducts(ordered);
+            // 재고가 모자라면 주문 행까지 함께 되돌린다, 사이즈 잠금은 커밋 뒤에 푼다
+            Set<Long> sizeIds = stock.stream().map(InventoryService.Line::getSizeId).collect(Collectors.toSet());
 
-            order.setPaymentResult(pr);
-            
-            Order result = orderRepository.save(order);  
-             
+            return inventoryService.locked(sizeIds, () -> tx.execute(status -> {
 
+                paymentRepository.save(pr);
 
-            return result;
+                Order result = orderRepository.save(order);
+
+                // TSID 는 insert 전에 정해지므로 hibernate.jdbc.batch_size 단위로 묶여 나간다
+                result.setOrderedProducts(orderedProductRepository.saveAll(ordered));
+
+                inventoryService.reserve(result.getOrderId(), stock);
+
+                return result;
+            }));
         }       
         return null;
     }
 
+    // size_id 를 저장하기 전에 담긴 장바구니 줄은 스타일과 사이즈 이름으로 찾는다
+    private Long sizeIdOf(CartLineDTO cartLine) {
+
+        if (cartLine.getSizeId() != null)
+            return cartLine.getSizeId();
+
+        SkuPriceDTO sku = skuPricingService.resolve(cartLine.getProductId(), cartLine.getStyle(), cartLine.getSize());
+        if (sku == null || sku.getSizeId() == null)
+            throw new RuntimeException("Product size not found");
+
+        return sku.getSizeId();
+    }
+
     public OrderDTO getOrder(Long orderId, String filter)  {
 
         Order data = null;
@@ -229,26 +289,79 @@ public class OrderService {
         return null;
     }
 
-    public List<OrderDTO> getOrders(String username, String filter) {
+    /**
+     * Order history, newest first, one keyset page after the cursor.
+     */
+    public CursorPageDTO<OrderSummaryDTO> getOrderPage(String username, String filter, String cursor, int size) {
 
-        User user = userRepository.findByUserName(username)
-        .orElseThrow(()->new RuntimeException(StatusMessages.USER_NOT_FOUND));
+        PageCursor after = PageCursor.decode("orders", cursor);
 
-        List<OrderDTO> result = new ArrayList<>();
+        List<OrderSummaryDTO> content = findSummaries(username, filter, after != null ? after.getId() : null,
+                PageRequest.of(0, size + 1));
 
-        if (null != user) {
-                List<Order> orders = user.getOrderLists();
+        boolean hasNext = content.size() > size;
+        if (hasNext)
+            content = content.subList(0, size);
 
-                for(Order o : orders) {
+        return CursorPageDTO.<OrderSummaryDTO>builder()
+                .content(content)
+                .nextCursor(hasNext ? PageCursor.encode("orders", Long.parseLong(content.get(size - 1).getId()))
+                        : null)
+                .build();
+    }
+
+    public List<OrderSummaryDTO> getOrders(String username, String filter) {
 
-                    OrderDTO dto = getOrder(o.getOrderId(), filter);
+        return findSummaries(username, filter, null, Pageable.unpaged());
+    }
 
-                    result.add(dto);
-                }
+    // 주문 한 번 (결제 상태 필터 포함), 주문 상품 한 번
+    private List<OrderSummaryDTO> findSummaries(String username, String filter, Long afterId, Pageable pageable) {
+
+        List<Object[]> rows = orderRepository.findSummaryRows(username,
+                filter.isEmpty() ? null : PaymentResultStatus.getStatus(filter), afterId, pageable);
+
+        Map<Long, OrderSummaryDTO> orders = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            PaymentResultStatus payStatus = (PaymentResultStatus) row[3];
+            OrderStatusEnum orderStatus = (OrderStatusEnum) row[8];
+
+            orders.put((Long) row[0], OrderSummaryDTO.builder()
+                    .id(Long.toString((Long) row[0]))
+                    .orderNumber((String) row[1])
+                    .paymentMethod((String) row[2])
+                    .paymentResult(payStatus != null ? payStatus.getStatus() : null)
+                    .total((Integer) row[4])
+                    .totalBeforeDiscount((Integer) row[5])
+                    .couponApplied((String) row[6])
+                    .isPaid((Boolean) row[7])
+                    .status(orderStatus != null ? orderStatus.name() : null)
+                    .createdAt((LocalDateTime) row[9])
+                    .products(new ArrayList<>())
+                    .build());
         }
 
-        return result;
+        if (orders.isEmpty())
+            return new ArrayList<>();
+
+        for (Object[] row : orderedProductRepository.findSummaryRows(orders.keySet())) {
+            orders.get((Long) row[0]).getProducts().add(OrderedProductDTO.builder()
+                    .id(Long.toString((Long) row[1]))
+                    .name((String) row[2])
+                    .image((String) row[3])
+                    .size((String) row[4])
+                    .qty((Integer) row[5])
+                    .price((Integer) row[6])
+                    .color(row[7] == null ? null
+                            : ColorAttributeDTO.builder()
+                                    .id(Long.toString((Long) row[7]))
+                                    .color((String) row[8])
+                                    .colorImage((String) row[9])
+                                    .build())
+                    .build());
+        }
 
-    }   
+        return new ArrayList<>(orders.values());
+    }
 
 }
@@ -3,8 +3,12 @@ package com.project.backend.service;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.project.backend.constants.OrderStatusEnum;
 import com.project.backend.dto.PaymentResultDTO;
 import com.project.backend.model.Order;
 import com.project.backend.model.PaymentResult;
@@ -12,6 +16,9 @@ import com.project.backend.repository.OrderRepository;
 import com.project.backend.repository.PaymentRepository;
 import com.project.backend.security.request.PayRequest;
 
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
 @Service
 public class PaymentService {
 
@@ -20,10 +27,20 @@ public class PaymentService {
     
     private final OrderRepository orderRepository;
 
+    private final InventoryService inventoryService;
+
+    private final TransactionTemplate tx;
+
+    @Value("${inventory.payment.commit-attempts:3}")
+    private int commitAttempts;
+
     @Autowired
-    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository) {
+    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository,
+            InventoryService inventoryService, PlatformTransactionManager transactionManager) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
+        this.inventoryService = inventoryService;
+        this.tx = new TransactionTemplate(transactionManager);
     }
 
     public PaymentResultDTO processPayment(String userName, PayRequest request) {
@@ -33,19 +50,23 @@ public class PaymentService {
             Order order = orderRepository.findByOrderNumber(request.getOrderNumber())
             .orElseThrow(() -> new RuntimeException("Order not found"));
 
-            orderRepository.updateIsPaidByOrderNumber(request.getOrderNumber(), true);       
-
-            PaymentResult pay = PaymentResult.builder()
-            //.payPrice(request.getPayPrice())
-            .payStatus(request.getPayStatus())
-            //.payType(PayType.C)
-            .payDateTime(request.getPayDateTime())
-            .payCancelDateTime(request.getPayCancelDateTime())
-            .build();
-
-            order.setPaymentResult(pay);            
-
-            paymentRepository.save(pay);            
+            // 결제는 이미 받았다: 재고 확정과 결제 기록을 한 트랜잭션에서, 만료 후 품절이면 주문에 표시한다
+            PaymentResult pay = null;
+            for (int attempt = 1; pay == null && attempt <= Math.max(commitAttempts, 1); attempt++) {
+                try {
+                    pay = inventoryService.commit(order.getOrderId(), inStock -> recordPayment(request,
+                            inStock ? null : OrderStatusEnum.BACKORDERED));
+                } catch (RuntimeException e) {
+                    log.warn("Stock of order " + request.getOrderNumber() + " not committed (attempt " + attempt
+                            + "): " + e.getMessage());
+                }
+            }
+
+            // 잠금 대기 초과 등으로 끝내 확정하지 못하면 결제만 기록한다, 예약은 남고 재고 sweep 이 확정한다
+            if (pay == null) {
+                log.error("Stock of order " + request.getOrderNumber() + " left for reconcile");
+                pay = tx.execute(status -> recordPayment(request, OrderStatusEnum.STOCK_PENDING));
+            }
 
             PaymentResultDTO result = PaymentResultDTO.builder()
             .paymentId(Long.toString(pay.getPaymentId()))
@@ -65,6 +86,33 @@ public class PaymentService {
         
     }
 
+    // orderStatus 가 null 이면 주문 상태는 그대로 둔다
+    private PaymentResult recordPayment(PayRequest request, OrderStatusEnum orderStatus) {
+
+        Order order = orderRepository.findByOrderNumber(request.getOrderNumber())
+        .orElseThrow(() -> new RuntimeException("Order not found"));
+
+        PaymentResult pay = PaymentResult.builder()
+        //.payPrice(request.getPayPrice())
+        .payStatus(request.getPayStatus())
+        //.payType(PayType.C)
+        .payDateTime(request.getPayDateTime())
+        .payCancelDateTime(request.getPayCancelDateTime())
+        .build();
+
+        paymentRepository.save(pay);
+
+        // 엔티티로 고쳐야 같은 트랜잭션의 flush 가 isPaid 를 되돌리지 않는다
+        order.setPaid(true);
+        order.setPaymentResult(pay);
+        if (orderStatus != null)
+            order.setOrderStatus(orderStatus);
+
+        orderRepository.save(order);
+
+        return pay;
+    }
+
     
 
 }
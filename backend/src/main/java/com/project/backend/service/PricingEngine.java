@@ -0,0 +1,256 @@
+package com.project.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.project.backend.event.ProductChangedEvent;
+import com.project.backend.repository.ProductSkuRepository;
+import com.project.backend.util.LongIntMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 할인 적용가의 단일 계산 지점.
+ * 켜져 있으면 모든 (sku, size) 의 최종가를 size id 기준 primitive 배열로 미리 계산해 두고,
+ * sku/할인이 바뀌면 (ProductChangedEvent) 그 상품의 slot 만 제자리에서 고친다.
+ * 새 사이즈는 여유 slot 과 작은 추가 맵으로 받고, 여유가 떨어질 때만 (또는 카탈로그 전체 변경 때) 다시 만든다.
+ * 장바구니/주문 단가는 여기서 읽는다. 검색 가격 필터는 정가 기준이라 VariantPriceIndex 가 맡는다 (그쪽 설명 참고).
+ * 줄 하나의 가격 조회는 할당이 없다: src/jmh 의 PricingEngineBenchmark (mvn -Pjmh, -prof gc).
+ */
+@Slf4j
+@Component
+public class PricingEngine {
+
+    public static final int UNKNOWN = -1;
+
+    private final ProductSkuRepository productSkuRepository;
+
+    @Value("${pricing.engine.enabled:false}")
+    private boolean enabled;
+
+    private volatile Snapshot snapshot;
+
+    // 상품 -> 그 상품의 살아 있는 slot, 쓰는 쪽(synchronized)만 쓴다
+    private final Map<Long, List<Integer>> slotsByProduct = new HashMap<>();
+
+    public PricingEngine(ProductSkuRepository productSkuRepository) {
+        this.productSkuRepository = productSkuRepository;
+    }
+
+    public static int discounted(int priceBefore, int discount) {
+        return discount > 0 ? priceBefore - priceBefore / discount : priceBefore;
+    }
+
+    public boolean isReady() {
+        return enabled && snapshot != null;
+    }
+
+    // 할인 적용가, 모르는 size 면 UNKNOWN
+    public int price(long sizeId) {
+
+        Snapshot s = snapshot;
+        if (!enabled || s == null)
+            return UNKNOWN;
+
+        int slot = s.slot(sizeId);
+        return slot < 0 ? UNKNOWN : s.prices[slot];
+    }
+
+    public int priceBefore(long sizeId) {
+
+        Snapshot s = snapshot;
+        if (!enabled || s == null)
+            return UNKNOWN;
+
+        int slot = s.slot(sizeId);
+        return slot < 0 ? UNKNOWN : s.pricesBefore[slot];
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+
+        if (!enabled)
+            return;
+
+        List<Object[]> rows = productSkuRepository.findPriceRows(null);
+
+        synchronized (this) {
+            slotsByProduct.clear();
+            snapshot = rebuild(rows, rows.size());
+        }
+
+        log.info("Pricing engine built: " + rows.size() + " size prices");
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+
+        // 재고/판매량 변경은 가격과 무관하다
+        if (!isReady() || event.isStockOnly())
+            return;
+
+        if (event.getProductId() == null) {
+            build();
+            return;
+        }
+
+        long productId = event.getProductId();
+        List<Object[]> rows = productSkuRepository.findPriceRows(productId);
+
+        synchronized (this) {
+            Snapshot current = snapshot;
+
+            Set<Integer> stale = new HashSet<>(slotsByProduct.getOrDefault(productId, List.of()));
+            List<Integer> live = new ArrayList<>();
+            List<Object[]> added = new ArrayList<>();
+
+            // 있던 사이즈는 제자리에서 고친다 (int 쓰기라 읽는 쪽은 예전 값이나 새 값 중 하나를 본다)
+            for (Object[] r : rows) {
+                if (r[2] == null)
+                    continue;
+
+                int slot = current.slot((Long) r[1]);
+                if (slot < 0) {
+                    added.add(r);
+                    continue;
+                }
+                current.set(slot, productId, (Integer) r[2], (Integer) r[3]);
+                stale.remove(slot);
+                live.add(slot);
+            }
+
+            // 없어진 사이즈는 UNKNOWN 으로 (slot 은 같은 size id 가 돌아오면 다시 쓴다)
+            for (int slot : stale)
+                current.clear(slot);
+
+            if (!added.isEmpty()) {
+
+                if (!current.fits(added.size())) {
+                    // 여유 slot 이나 추가 맵이 찼다: 살아 있는 slot 과 새 사이즈로 다시 만든다
+                    setSlots(productId, live);
+                    snapshot = compact(current, added);
+                    return;
+                }
+
+                // 배열 끝의 빈 slot 에 먼저 쓰고, 그 slot 을 가리키는 추가 맵을 마지막에 바꿔 끼운다
+                LongIntMap more = new LongIntMap(current.added.size() + added.size());
+                more.putAll(current.added);
+                for (Object[] r : added) {
+                    int slot = current.size++;
+                    current.set(slot, productId, (Integer) r[2], (Integer) r[3]);
+                    current.sizeIds[slot] = (Long) r[1];
+                    more.put((Long) r[1], slot);
+                    live.add(slot);
+                }
+                current.added = more;
+            }
+
+            setSlots(productId, live);
+
+            // volatile 쓰기로 제자리 변경을 다음 읽기에 보이게 한다
+            snapshot = current;
+        }
+    }
+
+    private void setSlots(long productId, List<Integer> live) {
+        if (live.isEmpty())
+            slotsByProduct.remove(productId);
+        else
+            slotsByProduct.put(productId, live);
+    }
+
+    // (productId, sizeId, price, discount), 가격 없는 size 는 빼고 계산 시점에 처리. slotsByProduct 도 채운다
+    private Snapshot rebuild(List<Object[]> rows, int expected) {
+
+        Snapshot next = new Snapshot(expected);
+        for (Object[] r : rows) {
+            if (r[2] != null)
+                addSlot(next, (Long) r[0], (Long) r[1], (Integer) r[2], (Integer) r[3]);
+        }
+        return next;
+    }
+
+    private Snapshot compact(Snapshot current, List<Object[]> added) {
+
+        List<Object[]> rows = new ArrayList<>();
+        for (List<Integer> slots : slotsByProduct.values()) {
+            for (int slot : slots) {
+                rows.add(new Object[] { current.productIds[slot], current.sizeIds[slot],
+                        current.pricesBefore[slot], current.discounts[slot] });
+            }
+        }
+        rows.addAll(added);
+
+        slotsByProduct.clear();
+        return rebuild(rows, rows.size());
+    }
+
+    private void addSlot(Snapshot s, long productId, long sizeId, int priceBefore, int discount) {
+
+        int slot = s.size++;
+        s.set(slot, productId, priceBefore, discount);
+        s.sizeIds[slot] = sizeId;
+        s.slots.put(sizeId, slot);
+        slotsByProduct.computeIfAbsent(productId, id -> new ArrayList<>()).add(slot);
+    }
+
+    private static final class Snapshot {
+
+        // size id -> 아래 배열의 위치 (만들 때 채우고 그 뒤로는 읽기만)
+        final LongIntMap slots;
+
+        // 만든 뒤 새로 생긴 size id -> 위치, 바뀔 때마다 통째로 바꿔 끼운다
+        volatile LongIntMap added = new LongIntMap(0);
+
+        final long[] productIds;
+        final long[] sizeIds;
+        final int[] pricesBefore;
+        final int[] discounts;
+        final int[] prices;
+
+        // 쓰는 쪽만 쓴다
+        int size;
+
+        // 새 사이즈를 받을 여유 slot 을 1/4 더 잡는다
+        Snapshot(int expected) {
+            int capacity = expected + expected / 4 + 16;
+            slots = new LongIntMap(expected);
+            productIds = new long[capacity];
+            sizeIds = new long[capacity];
+            pricesBefore = new int[capacity];
+            discounts = new int[capacity];
+            prices = new int[capacity];
+        }
+
+        int slot(long sizeId) {
+            int slot = slots.get(sizeId, -1);
+            return slot >= 0 ? slot : added.get(sizeId, -1);
+        }
+
+        // 빈 slot 이 남았고 추가 맵이 처음 맵의 1/8 을 넘지 않는지 (넘으면 다시 만든다)
+        boolean fits(int count) {
+            return size + count <= prices.length && added.size() + count <= slots.size() / 8 + 16;
+        }
+
+        void set(int slot, long productId, int priceBefore, int discount) {
+            productIds[slot] = productId;
+            pricesBefore[slot] = priceBefore;
+            discounts[slot] = discount;
+            prices[slot] = discounted(priceBefore, discount);
+        }
+
+        void clear(int slot) {
+            prices[slot] = UNKNOWN;
+            pricesBefore[slot] = UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.project.backend.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.backend.dto.ProductDTO;
+import com.project.backend.event.ProductChangedEvent;
+import com.project.backend.repository.ProductRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Denormalized product-detail documents in Redis: the serialized ProductDTO of
+ * {@code GET /api/product/{slug}} plus a version stamp, rebuilt off the request
+ * thread whenever a {@link ProductChangedEvent} touches the product.
+ * Documents expire after {@code product.read-model.ttl-seconds}, and a
+ * re-slugged product's old document is removed when the new one is written.
+ * Enabled with {@code product.read-model.enabled=true}.
+ */
+@Slf4j
+@Component
+public class ProductReadModel {
+
+    private static final String KEY_PREFIX = "product:doc:";
+
+    private static final String VERSION_KEY = "product:doc:version";
+
+    // productId -> 마지막으로 문서를 쓴 slug
+    private static final String SLUG_KEY = "product:doc:slugs";
+
+    // 늦게 끝난 이전 버전이 새 문서를 덮어쓰지 않게 한다
+    // ARGV: version, json, ttl, productId, slug. slug 가 바뀐 상품은 이전 slug 의 문서를 지운다
+    private static final DefaultRedisScript<Long> WRITE_IF_NEWER = new DefaultRedisScript<>(
+            "local cur = redis.call('HGET', KEYS[1], 'v') " +
+            "if cur and tonumber(cur) >= tonumber(ARGV[1]) then return 0 end " +
+            "redis.call('HSET', KEYS[1], 'v', ARGV[1], 'json', ARGV[2]) " +
+            "redis.call('EXPIRE', KEYS[1], tonumber(ARGV[3])) " +
+            "local prev = redis.call('HGET', KEYS[2], ARGV[4]) " +
+            "if prev and prev ~= ARGV[5] then redis.call('DEL', '" + KEY_PREFIX + "' .. prev) end " +
+            "redis.call('HSET', KEYS[2], ARGV[4], ARGV[5]) " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ProductService productService;
+
+    private final ProductRepository productRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate readOnlyTx;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "product-read-model");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 대기 중인 재생성이 있는 slug, 시작 전까지는 같은 slug 요청을 하나로 합친다
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    @Value("${product.read-model.enabled:false}")
+    private boolean enabled;
+
+    @Value("${product.read-model.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    public ProductReadModel(StringRedisTemplate redisTemplate, ProductService productService,
+            ProductRepository productRepository, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.redisTemplate = redisTemplate;
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Stored JSON for the slug, or null on a miss (or when disabled / Redis is
+     * unreachable) so the caller builds the DTO itself.
+     */
+    public String get(String slug) {
+
+        if (!enabled)
+            return null;
+
+        try {
+            Object json = redisTemplate.opsForHash().get(KEY_PREFIX + slug, "json");
+            return json != null ? json.toString() : null;
+        } catch (RuntimeException e) {
+            log.warn("Product read model unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // 미스가 나면 다음 요청부터는 저장된 문서를 쓰도록 미리 만들어 둔다
+    public void warm(String slug) {
+
+        if (enabled)
+            schedule(slug);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+
+        // 카테고리 생성 같은 변경은 기존 상품 문서를 바꾸지 않는다
+        if (!enabled || event.getProductId() == null)
+            return;
+
+        productRepository.findById(event.getProductId()).ifPresent(product -> schedule(product.getSlug()));
+    }
+
+    private void schedule(String slug) {
+
+        // 아직 시작하지 않은 재생성이 있으면 그쪽이 최신 상태를 읽는다: 버전도 올리지 않는다
+        if (slug == null || !queued.add(slug))
+            return;
+
+        try {
+            long version = redisTemplate.opsForValue().increment(VERSION_KEY);
+            executor.submit(() -> regenerate(slug, version));
+        } catch (RuntimeException e) {
+            queued.remove(slug);
+            log.warn("Product read model refresh skipped for " + slug + ": " + e.getMessage());
+        }
+    }
+
+    private void regenerate(String slug, long version) {
+
+        // 읽기 전에 풀어서, 읽는 도중의 변경은 새 재생성 (더 높은 버전)으로 잡히게 한다
+        queued.remove(slug);
+
+        try {
+            // 별도 스레드라 lazy 컬렉션을 읽는 동안 세션을 열어 둔다
+            // (productId, json)
+            String[] doc = readOnlyTx.execute(status -> {
+                List<ProductDTO> dtos = productService.getProductsBySlug(slug);
+                if (dtos == null || dtos.isEmpty())
+                    return null;
+                try {
+                    return new String[] { dtos.get(0).getId(), objectMapper.writeValueAsString(dtos.get(0)) };
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            if (doc == null) {
+                redisTemplate.delete(KEY_PREFIX + slug);
+                return;
+            }
+
+            redisTemplate.execute(WRITE_IF_NEWER, List.of(KEY_PREFIX + slug, SLUG_KEY), Long.toString(version), doc[1],
+                    Long.toString(ttlSeconds), doc[0], slug);
+
+        } catch (RuntimeException e) {
+            log.warn("Product read model rebuild failed for " + slug + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
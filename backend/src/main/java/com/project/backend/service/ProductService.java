@@ -2,14 +2,26 @@ package com.project.backend.service;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
 import org.apache.commons.codec.binary.Base64;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +30,9 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.project.backend.dto.CategoryDTO;
+import com.project.backend.dto.CursorPageDTO;
+import com.project.backend.dto.ProductSummaryDTO;
+import com.project.backend.dto.ReviewSummaryDTO;
 import com.project.backend.dto.ColorAttributeDTO;
 import com.project.backend.dto.ProductDTO;
 import com.project.backend.dto.ProductDetailDTO;
@@ -29,8 +44,10 @@ import com.project.backend.dto.ReviewStyleDTO;
 import com.project.backend.dto.ReviewerDTO;
 import com.project.backend.dto.SearchResultDTO;
 import com.project.backend.dto.SizeAttributeDTO;
+import com.project.backend.dto.SkuPriceDTO;
 import com.project.backend.dto.SubCategoryDTO;
 import com.project.backend.dto.UserDTO;
+import com.project.backend.event.ProductChangedEvent;
 import com.project.backend.model.Product;
 import com.project.backend.model.ProductCategory;
 import com.project.backend.model.ProductColorAttribute;
@@ -49,6 +66,13 @@ import com.project.backend.repository.ProductRepository;
 import com.project.backend.repository.ProductSkuRepository;
 import com.project.backend.repository.ReviewRepository;
 import com.project.backend.repository.SubCategoryRepository;
+import com.project.backend.search.ProductSearchIndex;
+import com.project.backend.search.SearchFacets;
+import com.project.backend.search.SearchResultCache;
+import com.project.backend.search.SearchSort;
+import com.project.backend.search.TopKSelector;
+import com.project.backend.util.PageCursor;
+import com.project.backend.search.VariantPriceIndex;
 import com.project.backend.security.request.ProductInfoLoadRequest;
 import com.project.backend.security.request.ProductInfosLoadRequest;
 import com.project.backend.security.request.ProductRequest;
@@ -82,11 +106,26 @@ public class ProductService {
 
     private final ReviewRepository reviewRepository;
 
+    private final ProductSearchIndex productSearchIndex;
+
+    private final VariantPriceIndex variantPriceIndex;
+
+    private final SearchResultCache searchResultCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final SkuPricingService skuPricingService;
+
+    // ProductDTO에 함께 싣는 최신 리뷰 수
+    private static final int EMBEDDED_REVIEWS = 10;
+
     public ProductService(CategoryRepository categoryRepository, SubCategoryRepository subCategoryRepository,
             ProductRepository productRepository, ProductSkuRepository productskuRepository,
             ProductDetailsRepository productDetailsRepository, ProductQARepository productQARepository,
             ReviewRepository reviewRepository, CategoryService categoryService,
-            ProductColorRepository productColorRepository) {
+            ProductColorRepository productColorRepository, ProductSearchIndex productSearchIndex,
+            VariantPriceIndex variantPriceIndex, SearchResultCache searchResultCache,
+            ApplicationEventPublisher eventPublisher, SkuPricingService skuPricingService) {
         this.categoryRepository = categoryRepository;
         this.subCategoryRepository = subCategoryRepository;
         this.productRepository = productRepository;
@@ -96,6 +135,11 @@ public class ProductService {
         this.productColorRepository = productColorRepository;
         this.productQARepository = productQARepository;
         this.reviewRepository = reviewRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.variantPriceIndex = variantPriceIndex;
+        this.searchResultCache = searchResultCache;
+        this.eventPublisher = eventPublisher;
+        this.skuPricingService = skuPricingService;
     }
 
     public List<ProductDTO> getProductsByName(String productName) {
@@ -116,9 +160,60 @@ public class ProductService {
         return null;
     }
 
+    /**
+     * Admin product listing, newest first, one keyset page after the cursor.
+     */
+    public CursorPageDTO<ProductDTO> getProductPage(String cursor, int size) {
+
+        PageCursor after = PageCursor.decode("admin:products", cursor);
+
+        List<Product> products = productRepository.findPageAfter(after != null ? after.getId() : null,
+                createPageRequestUsing(0, size + 1));
+
+        boolean hasNext = products.size() > size;
+        if (hasNext)
+            products = products.subList(0, size);
+
+        List<ProductDTO> content = products.stream().map(this::convertToDto).collect(Collectors.toList());
+
+        return CursorPageDTO.<ProductDTO>builder()
+                .content(content)
+                .nextCursor(hasNext ? PageCursor.encode("admin:products", products.get(size - 1).getProductId())
+                        : null)
+                .build();
+    }
+
+    /**
+     * One keyset page of a product's Q&A, newest first.
+     */
+    public CursorPageDTO<ProductQADTO> getQuestions(Long productId, String cursor, int size) {
+
+        String scope = "questions:" + productId;
+        PageCursor after = PageCursor.decode(scope, cursor);
+
+        List<ProductQA> questions = productQARepository.findPage(productId, after != null ? after.getId() : null,
+                createPageRequestUsing(0, size + 1));
+
+        boolean hasNext = questions.size() > size;
+        if (hasNext)
+            questions = questions.subList(0, size);
+
+        List<ProductQADTO> content = questions.stream().map(q -> {
+            return ProductQADTO.builder()
+                    .question(q.getQuestion())
+                    .answer(q.getAnswer())
+                    .build();
+        }).collect(Collectors.toList());
+
+        return CursorPageDTO.<ProductQADTO>builder()
+                .content(content)
+                .nextCursor(hasNext ? PageCursor.encode(scope, questions.get(size - 1).getQaId()) : null)
+                .build();
+    }
+
     public ProductDTO getProductById(Long productId) {
 
-        Optional<Product> product = productRepository.findById(productId);
+        Optional<Product> product = productRepository.findDetailById(productId);
 
         if (product.isPresent()) {
 
@@ -164,32 +259,19 @@ public class ProductService {
                     .value(detail.getValue()).build();
         }).collect(Collectors.toList());
 
-        List<ReviewDTO> reviews = product.getReviews().stream().map(review -> {
-            return ReviewDTO.builder()
-                    .images(review.getImages())
-                    .rating(review.getRating())
-                    .fit(review.getFit())
-                    .review(review.getReview())
-                    .reviewedBy(ReviewerDTO.builder()
-                            .name(review.getReviewedBy().getUserName())
-                            .image(review.getReviewedBy().getImage())
-                            .build())
-                    .likes(review.getLikes())
-                    .size(review.getSize())
-                    .style(ReviewStyleDTO.builder()
-                            .color(review.getStyle().getColor())
-                            .image(review.getStyle().getImage())
-                            .build())
-                    .build();
+        // 리뷰는 최신 몇 건만 싣고 나머지는 /api/product/{id}/reviews 로 넘긴다
+        List<ReviewDTO> reviews = reviewRepository
+                .findNewestPage(product.getProductId(), null, null, createPageRequestUsing(0, EMBEDDED_REVIEWS))
+                .stream().map(ReviewService::toDto).collect(Collectors.toList());
 
-        }).collect(Collectors.toList());
+        ReviewSummaryDTO reviewSummary = ReviewSummaryDTO.builder()
+                .count(product.getNum_reviews())
+                .average(product.getRating())
+                .stars(List.of(product.getStar1(), product.getStar2(), product.getStar3(),
+                        product.getStar4(), product.getStar5()))
+                .build();
 
-        List<ProductQADTO> questions = product.getQuestions().stream().map(q -> {
-            return ProductQADTO.builder()
-                    .question(q.getQuestion())
-                    .answer(q.getAnswer())
-                    .build();
-        }).collect(Collectors.toList());
+        long questionCount = productQARepository.countByProduct_ProductId(product.getProductId());
 
         List<ProductSkuDTO> skus = product.getSku_products().stream().map(sku -> {
 
@@ -203,7 +285,8 @@ public class ProductService {
                 SizeAttributeDTO size = new SizeAttributeDTO(Long.toString(item.getSizeId()),
                         item.getSize(), item.getQuantity(), item.getPrice());
                 return size;
-            }).collect(Collectors.toSet());
+            // size_id 순서를 지킨다: 프론트의 size 인덱스가 이 순서의 위치다
+            }).collect(Collectors.toCollection(LinkedHashSet::new));
 
             ColorAttributeDTO color = new ColorAttributeDTO(Long.toString(sku.getColor().getColorId()),
                     sku.getColor().getColor(), sku.getColor().getColorImage());
@@ -231,7 +314,8 @@ public class ProductService {
                 .subCategories(subCategories)
                 .details(details)
                 .reviews(reviews)
-                .questions(questions)
+                .reviewSummary(reviewSummary)
+                .questionCount(questionCount)
                 .sku_products(skus)
                 .refund_policy(product.getRefund_policy())
                 .rating(product.getRating())
@@ -274,6 +358,8 @@ public class ProductService {
 
                 productRepository.save(existed.get());
 
+                publishProductChanged(existed.get());
+
                 return newSku;
             }
         } else {
@@ -308,7 +394,11 @@ public class ProductService {
 
                     productRepository.save(product);
 
-                    return loadSku(request, product, images, colorImage);
+                    ProductSku sku = loadSku(request, product, images, colorImage);
+
+                    publishProductChanged(product);
+
+                    return sku;
                 }
             } else {
 
@@ -340,7 +430,11 @@ public class ProductService {
 
                 productRepository.save(product);
 
-                return loadSku(request, product, images, colorImage);
+                ProductSku sku = loadSku(request, product, images, colorImage);
+
+                publishProductChanged(product);
+
+                return sku;
 
             }
         }
@@ -361,6 +455,8 @@ public class ProductService {
 
                 productRepository.save(existed.get());
 
+                publishProductChanged(existed.get());
+
                 return newSku;
             }
         } else {
@@ -395,7 +491,11 @@ public class ProductService {
 
                     productRepository.save(product);
 
-                    return createSku(request, product, images, colorImage);
+                    ProductSku sku = createSku(request, product, images, colorImage);
+
+                    publishProductChanged(product);
+
+                    return sku;
                 }
             }
         }
@@ -505,6 +605,16 @@ public class ProductService {
 
     }
 
+    // 정렬 키(판매량, 최저가)를 다시 계산하고 알린다
+    private void publishProductChanged(Product product) {
+
+        productRepository.refreshSortKeys(product.getProductId());
+
+        Long categoryId = product.getCategory() != null ? product.getCategory().getCategoryId() : null;
+
+        eventPublisher.publishEvent(new ProductChangedEvent(this, product.getProductId(), categoryId));
+    }
+
     private String encodeFileToBase64(MultipartFile file) {
         try {
 
@@ -524,42 +634,265 @@ public class ProductService {
         return PageRequest.of(page, size);
     }
 
+    private List<Object[]> findRankedPage(SearchSort sort, SearchParamsRequest params, Long categoryId,
+            PageCursor cursor, Pageable pageRequest) {
+
+        Double afterKey = cursor != null && !Double.isInfinite(cursor.getKey()) ? cursor.getKey() : null;
+        Long afterId = cursor != null ? cursor.getId() : null;
+        int limit = pageRequest.getPageSize() + 1;
+        long offset = pageRequest.getOffset();
+
+        switch (sort) {
+            case BEST_SELLING:
+                return productRepository.findBestSellingPage(params.getSearch(), categoryId, params.getStyle(),
+                        params.getBrand(), params.getMaterial(), params.getGender(), params.getRating(),
+                        params.getLowPrice(), params.getHighPrice(), params.getSize(), params.getColor(),
+                        afterKey, afterId, limit, offset);
+            case TOP_RATED:
+                return productRepository.findTopRatedPage(params.getSearch(), categoryId, params.getStyle(),
+                        params.getBrand(), params.getMaterial(), params.getGender(), params.getRating(),
+                        params.getLowPrice(), params.getHighPrice(), params.getSize(), params.getColor(),
+                        afterKey, afterId, limit, offset);
+            case PRICE_ASC:
+                return productRepository.findPriceAscPage(params.getSearch(), categoryId, params.getStyle(),
+                        params.getBrand(), params.getMaterial(), params.getGender(), params.getRating(),
+                        params.getLowPrice(), params.getHighPrice(), params.getSize(), params.getColor(),
+                        afterKey, afterId, limit, offset);
+            default:
+                return productRepository.findPriceDescPage(params.getSearch(), categoryId, params.getStyle(),
+                        params.getBrand(), params.getMaterial(), params.getGender(), params.getRating(),
+                        params.getLowPrice(), params.getHighPrice(), params.getSize(), params.getColor(),
+                        afterKey, afterId, limit, offset);
+        }
+    }
+
+    private List<Long> findProductIdsBySizeAndPriceAndColor(SearchParamsRequest params) {
+
+        long[] ids = variantPriceIndex.findProductIds(params.getLowPrice(), params.getHighPrice(),
+                params.getSize(), params.getColor());
+
+        if (ids == null)
+            return productskuRepository.findProductIDBySizeAndPriceAndColor(params.getLowPrice(),
+                    params.getHighPrice(), params.getSize(), params.getColor());
+
+        return Arrays.stream(ids).boxed().collect(Collectors.toList());
+    }
+
+    private List<Product> findProductsInOrder(List<Long> productIds) {
+
+        Map<Long, Product> byId = productRepository.findDetailsByIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+        return productIds.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * List-row projections for a page of ids: three queries per page instead of
+     * loading every product graph.
+     */
+    private List<ProductSummaryDTO> findSummariesInOrder(List<Long> productIds) {
+
+        if (productIds.isEmpty())
+            return new ArrayList<>();
+
+        Map<Long, ProductSummaryDTO> byId = new HashMap<>();
+
+        for (Object[] row : productRepository.findSummaryRows(productIds)) {
+            byId.put((Long) row[0], ProductSummaryDTO.builder()
+                    .id(Long.toString((Long) row[0]))
+                    .name((String) row[1])
+                    .slug((String) row[2])
+                    .brand((String) row[3])
+                    .rating(row[4] != null ? ((Number) row[4]).floatValue() : 0F)
+                    .num_reviews(row[5] != null ? ((Number) row[5]).intValue() : 0)
+                    .build());
+        }
+
+        for (Object[] row : productskuRepository.findPriceRangeRows(productIds)) {
+            ProductSummaryDTO dto = byId.get((Long) row[0]);
+            if (dto != null) {
+                dto.setMinPrice((Integer) row[1]);
+                dto.setMaxPrice((Integer) row[2]);
+            }
+        }
+
+        Set<Long> seen = new HashSet<>();
+        for (Object[] row : productskuRepository.findImageRows(productIds)) {
+            ProductSummaryDTO dto = byId.get((Long) row[0]);
+            if (dto == null || !seen.add((Long) row[0]))
+                continue;
+
+            @SuppressWarnings("unchecked")
+            List<String> images = (List<String>) row[1];
+            dto.setImage(images != null && !images.isEmpty() ? images.get(0) : null);
+            dto.setDiscount(((Number) row[2]).intValue());
+        }
+
+        return productIds.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    // 정렬 키 컬럼이 생기기 전의 상품은 키가 비어 있다: 시작할 때 그 상품들만 계산한다
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSortKeys() {
+
+        try {
+            int updated = productRepository.refreshSortKeys(null);
+            if (updated > 0)
+                log.info("Backfilled sort keys for " + updated + " products");
+        } catch (RuntimeException e) {
+            log.warn("Sort key backfill failed: " + e.getMessage());
+        }
+    }
+
     public SearchResultDTO searchProducts(SearchParamsRequest params) {
 
+        String key = SearchResultCache.key(params);
+
+        SearchResultDTO cached = searchResultCache.get(key);
+        if (cached != null)
+            return cached;
+
+        long generation = searchResultCache.generation();
+
+        SearchResultDTO result = search(params);
+
+        Long categoryId = params.getCategory() != null ? Long.parseLong(params.getCategory()) : null;
+        searchResultCache.put(key, categoryId, result, generation);
+
+        return result;
+    }
+
+    private SearchResultDTO search(SearchParamsRequest params) {
+
         List<Long> productIds = null;
-        List<Product> products = null;
         Long categoryId = null;
 
         if (params.getCategory() != null)
             categoryId = Long.parseLong(params.getCategory());
 
-        productIds = productskuRepository.findProductIDBySizeAndPriceAndColor(params.getLowPrice(),
-                params.getHighPrice(), params.getSize(), params.getColor());
+        // search.index.enabled=true면 MySQL 대신 메모리 인덱스에서 찾는다
+        List<Long> matched = productSearchIndex.search(params);
 
-        if (!productIds.isEmpty()) {
+        SearchSort sort = SearchSort.from(params.getSort());
+        boolean ranking = sort != null && sort.needsRanking();
 
-            products = productRepository.findProductBySearchParams(params.getSearch(), categoryId,
-                    params.getStyle(), params.getBrand(), params.getMaterial(), params.getGender(),
-                    params.getRating(), productIds);
+        // MySQL 정렬 페이지는 사이즈/가격/색상 조건도 쿼리 안에서 보므로 id 목록이 필요 없다
+        boolean rankedInSql = ranking && matched == null;
 
-            int totalProducts = productRepository.countProductsBySearchParams(params.getSearch(), categoryId,
-                    params.getStyle(), params.getBrand(), params.getMaterial(), params.getGender(),
-                    params.getRating(), productIds);
+        if (matched != null)
+            productIds = matched;
+        else if (!rankedInSql)
+            productIds = findProductIdsBySizeAndPriceAndColor(params);
 
-            List<ProductDTO> pDtos = products.stream().map(product -> {
+        if (rankedInSql || !productIds.isEmpty()) {
 
-                ProductDTO dto = convertToDto(product);
-                return dto;
-            }).collect(Collectors.toList());
+            // cursor 모드는 항상 커서 다음부터 한 페이지 (offset 0)
+            boolean cursorMode = params.getCursor() != null;
+
+            Pageable pageRequest = createPageRequestUsing(cursorMode ? 0 : Math.max(params.getPage(), 1) - 1,
+                    params.getPageSize());
+
+            List<Long> pageIds;
+            int totalProducts;
+            boolean hasNext;
+            double lastKey = 0;
+
+            String cursorScope = "search:" + (ranking ? sort.getValue() : "id");
+            PageCursor cursor = cursorMode ? PageCursor.decode(cursorScope, params.getCursor()) : null;
+
+            if (rankedInSql) {
+
+                // 저장된 정렬 키 인덱스에서 커서 다음부터 이 페이지(+1)만 읽는다, 키 없는 구간은 -Infinity
+                List<Object[]> rows = findRankedPage(sort, params, categoryId, cursor, pageRequest);
+
+                hasNext = rows.size() > pageRequest.getPageSize();
+                if (hasNext)
+                    rows = rows.subList(0, pageRequest.getPageSize());
+
+                // 다른 경로와 같이 맞는 상품이 하나도 없으면 null
+                if (rows.isEmpty() && cursor == null && pageRequest.getOffset() == 0)
+                    return null;
+
+                pageIds = rows.stream().map(row -> ((Number) row[0]).longValue()).collect(Collectors.toList());
+                if (!rows.isEmpty()) {
+                    Object key = rows.get(rows.size() - 1)[1];
+                    lastKey = key != null ? ((Number) key).doubleValue() : Double.NEGATIVE_INFINITY;
+                }
+
+                if (params.isWithTotal()) {
+                    productIds = findProductIdsBySizeAndPriceAndColor(params);
+                    totalProducts = productRepository.countProductsBySearchParams(params.getSearch(), categoryId,
+                            params.getStyle(), params.getBrand(), params.getMaterial(), params.getGender(),
+                            params.getRating(), productIds);
+                } else {
+                    totalProducts = (int) pageRequest.getOffset() + pageIds.size() + (hasNext ? 1 : 0);
+                }
+
+            } else if (ranking) {
+
+                // 전체를 정렬하지 않고 이 페이지 끝(+1)까지만 힙으로 고른다
+                int k = (int) Math.min(pageRequest.getOffset() + pageRequest.getPageSize() + 1, Integer.MAX_VALUE);
+
+                TopKSelector selector = new TopKSelector(k);
+                if (cursor != null)
+                    selector.after(cursor.getKey(), cursor.getId());
+
+                long[] ranked = productSearchIndex.rank(matched, sort, selector);
+                totalProducts = matched.size();
+
+                int from = (int) Math.min(pageRequest.getOffset(), ranked.length);
+                int to = Math.min(from + pageRequest.getPageSize(), ranked.length);
+                hasNext = ranked.length > to;
+
+                pageIds = Arrays.stream(ranked, from, to).boxed().collect(Collectors.toList());
+                if (to > from)
+                    lastKey = selector.scoreAt(to - 1);
+
+            } else if (matched != null) {
+
+                int from = (int) Math.min(pageRequest.getOffset(), matched.size());
+                if (cursor != null) {
+                    // matched는 product_id desc 정렬
+                    int pos = Collections.binarySearch(matched, cursor.getId(), Comparator.reverseOrder());
+                    from = pos >= 0 ? pos + 1 : -pos - 1;
+                }
+                int to = Math.min(from + pageRequest.getPageSize(), matched.size());
+
+                pageIds = matched.subList(from, to);
+                hasNext = matched.size() > to;
+                totalProducts = matched.size();
 
-            Pageable pageRequest = createPageRequestUsing(params.getPage() - 1, params.getPageSize());
-            int start = (int) pageRequest.getOffset();
-            int end = Math.min((start + pageRequest.getPageSize()), totalProducts);
+            } else {
 
-            log.info(Integer.toString(start));
-            log.info(Integer.toString(end));
+                // 한 건 더 가져와서 다음 페이지가 있는지만 확인한다
+                pageIds = productRepository.findProductIdsBySearchParams(params.getSearch(), categoryId,
+                        params.getStyle(), params.getBrand(), params.getMaterial(), params.getGender(),
+                        params.getRating(), productIds, cursor != null ? cursor.getId() : null,
+                        pageRequest.getPageSize() + 1, pageRequest.getOffset());
+
+                hasNext = pageIds.size() > pageRequest.getPageSize();
+                if (hasNext)
+                    pageIds = pageIds.subList(0, pageRequest.getPageSize());
+
+                if (params.isWithTotal()) {
+                    totalProducts = productRepository.countProductsBySearchParams(params.getSearch(), categoryId,
+                            params.getStyle(), params.getBrand(), params.getMaterial(), params.getGender(),
+                            params.getRating(), productIds);
+                } else {
+                    totalProducts = (int) pageRequest.getOffset() + pageIds.size() + (hasNext ? 1 : 0);
+                }
+            }
+
+            String nextCursor = null;
+            if (cursorMode && hasNext && !pageIds.isEmpty()) {
+                long lastId = pageIds.get(pageIds.size() - 1);
+                nextCursor = PageCursor.encode(cursorScope, ranking ? lastKey : lastId, lastId);
+            }
 
-            List<ProductDTO> pageContent = pDtos.subList(start, end);
+            List<?> pageContent = params.isSummaryView() ? findSummariesInOrder(pageIds)
+                    : findProductsInOrder(pageIds).stream()
+                            .map(this::convertToDto)
+                            .collect(Collectors.toList());
 
             // List<String> subs = null;
             // List<SubCategory> subcategories =
@@ -567,7 +900,10 @@ public class ProductService {
             // subs = subcategories.stream().map(sub-> {return
             // sub.getSubcategoryName();}).collect(Collectors.toList());
 
-            List<String> brandDB = productRepository.findBrandsByCategoryId(categoryId);
+            SearchFacets facets = matched != null ? productSearchIndex.facets(matched, categoryId) : null;
+
+            List<String> brandDB = facets != null ? facets.getBrands()
+                    : productRepository.findBrandsByCategoryId(categoryId);
 
             List<CategoryDTO> categoryDTOs = categoryRepository.findAll().stream().map(category -> {
                 return new CategoryDTO(Long.toString(category.getCategoryId()), category.getCategoryName(),
@@ -584,14 +920,16 @@ public class ProductService {
                     }).collect(Collectors.toList());
 
             SearchResultDTO result = SearchResultDTO.builder()
-                    .product(new PageImpl<>(pageContent, pageRequest, pDtos.size()))
+                    .product(new PageImpl<>(pageContent, pageRequest, totalProducts))
                     .categories(categoryDTOs)
                     .subCategories(subCategoryDTOs)
-                    .colors(getColors(categoryId))
-                    .sizes(getSizes(categoryId))
-                    .details(getDetails(categoryId))
+                    .colors(facets != null ? facets.getColors() : getColors(categoryId))
+                    .sizes(facets != null ? facets.getSizes() : getSizes(categoryId))
+                    .details(facets != null ? facets.getDetails() : getDetails(categoryId))
+                    .facets(facets != null ? facets.getCounts() : null)
                     .brandsDB(brandDB)
                     .totalProducts(totalProducts)
+                    .nextCursor(nextCursor)
                     .build();
 
             return result;
@@ -653,87 +991,57 @@ public class ProductService {
 
     public ProductInfoDTO getCartProductInfo(Long productId, int style, int size) {
 
-        Optional<Product> data = productRepository.findById(productId);
-
-        if (data.isPresent()) {
-
-            Product product = data.get();
-
-            int discount = product.getSku_products().get(style).getDiscount();
-            int priceBefore = product.getSku_products().get(style).getSizes().get(size).getPrice();
-            int price = discount > 0 ? priceBefore - priceBefore / discount : priceBefore;
+        return getCartProductInfo(skuPricingService.resolve(productId, style, size));
+    }
 
-            ColorAttributeDTO color = ColorAttributeDTO.builder()
-                    .id(Long.toString(product.getSku_products().get(style).getColor().getColorId()))
-                    .color(product.getSku_products().get(style).getColor().getColor())
-                    .colorImage(product.getSku_products().get(style).getColor().getColorImage())
-                    .build();
+    // 가격/재고/이미지는 이미 찾은 sku 값을 쓰고, 상품 쪽은 상세 그래프 없이 읽는다
+    public ProductInfoDTO getCartProductInfo(SkuPriceDTO sku) {
 
-            List<String> subcategoryIds = product.getSubCategories().stream().map(subcategory -> {
-                return Long.toString(subcategory.getSubcategoryId());
-            })
-                    .collect(Collectors.toList());
+        if (sku == null)
+            return null;
 
-            List<ProductDetailDTO> details = product.getDetails().stream().map(detail -> {
-                return ProductDetailDTO.builder()
-                        .name(detail.getName())
-                        .value(detail.getValue()).build();
-            }).collect(Collectors.toList());
+        Optional<Product> data = productRepository.findById(sku.getProductId());
 
-            List<ProductQADTO> questions = product.getQuestions().stream().map(q -> {
-                return ProductQADTO.builder()
-                        .question(q.getQuestion())
-                        .answer(q.getAnswer())
-                        .build();
-            }).collect(Collectors.toList());
+        return data.isPresent() ? getCartProductInfo(data.get(), sku) : null;
+    }
 
-            List<ReviewDTO> reviews = product.getReviews().stream().map(review -> {
-                return ReviewDTO.builder()
-                        .images(review.getImages())
-                        .rating(review.getRating())
-                        .fit(review.getFit())
-                        .review(review.getReview())
-                        .reviewedBy(ReviewerDTO.builder()
-                                .name(review.getReviewedBy().getUserName())
-                                .image(review.getReviewedBy().getImage())
-                                .build())
-                        .size(review.getSize())
-                        .style(ReviewStyleDTO.builder()
-                                .color(review.getStyle().getColor())
-                                .image(review.getStyle().getImage())
-                                .build())
-                        .build();
+    // 장바구니 일괄 조회용: product 와 sku 는 호출하는 쪽에서 이미 읽어 둔 것
+    public ProductInfoDTO getCartProductInfo(Product product, SkuPriceDTO sku) {
 
-            }).collect(Collectors.toList());
+        List<String> subcategoryIds = product.getSubCategories().stream().map(subcategory -> {
+            return Long.toString(subcategory.getSubcategoryId());
+        })
+                .collect(Collectors.toList());
 
-            ProductInfoDTO dto = ProductInfoDTO.builder()
-                    .id(Long.toString(product.getProductId()))
-                    .style(style)
-                    .name(product.getName())
-                    .description(product.getDescription())
-                    .slug(product.getSlug())
-                    .sku(product.getSku_products().get(style).getSku())
-                    .brand(product.getBrand())
-                    .shipping(product.getShipping())
-                    .images(product.getSku_products().get(style).getImages())
-                    .color(color)
-                    .size(product.getSku_products().get(style).getSizes().get(size).getSize())
-                    .price(price)
-                    .priceBefore(priceBefore)
-                    .qty(1)
-                    .quantity(product.getSku_products().get(style).getSizes().get(size).getQuantity())
-                    .category(Long.toString(product.getCategory().getCategoryId()))
-                    .subCategories(subcategoryIds)
-                    .questions(questions)
-                    .details(details)
-                    .reviews(reviews)
-                    .discount(discount)
-                    .build();
+        List<ProductDetailDTO> details = product.getDetails().stream().map(detail -> {
+            return ProductDetailDTO.builder()
+                    .name(detail.getName())
+                    .value(detail.getValue()).build();
+        }).collect(Collectors.toList());
 
-            return dto;
-        }
+        ProductInfoDTO dto = ProductInfoDTO.builder()
+                .id(Long.toString(product.getProductId()))
+                .style(sku.getStyle())
+                .name(product.getName())
+                .description(product.getDescription())
+                .slug(product.getSlug())
+                .sku(sku.getSku())
+                .brand(product.getBrand())
+                .shipping(product.getShipping())
+                .images(sku.getImages())
+                .color(sku.getColor())
+                .size(sku.getSize())
+                .price(sku.getPrice())
+                .priceBefore(sku.getPriceBefore())
+                .qty(1)
+                .quantity(sku.getQuantity())
+                .category(Long.toString(product.getCategory().getCategoryId()))
+                .subCategories(subcategoryIds)
+                .details(details)
+                .discount(sku.getDiscount())
+                .build();
 
-        return null;
+        return dto;
     }
 
 }
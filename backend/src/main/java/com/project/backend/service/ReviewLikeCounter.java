@@ -0,0 +1,107 @@
+package com.project.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.backend.repository.ReviewRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Accumulates review like/unlike deltas in striped {@link LongAdder}s and
+ * writes them to review.like_count in one transaction per flush, so a hot
+ * review costs one row update per interval instead of one per click.
+ */
+@Slf4j
+@Component
+public class ReviewLikeCounter {
+
+    private final ReviewRepository reviewRepository;
+
+    private final TransactionTemplate tx;
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "review-like-flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${review.likes.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    public ReviewLikeCounter(ReviewRepository reviewRepository, PlatformTransactionManager transactionManager) {
+        this.reviewRepository = reviewRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void add(Long reviewId, int delta) {
+        LongAdder adder = pending.computeIfAbsent(reviewId, id -> new LongAdder());
+        adder.add(delta);
+
+        // 그사이 flush 가 이 adder 를 꺼냈으면 남은 값을 새 adder 로 옮긴다.
+        // 셀마다 getAndSet(0) 이라 각 값은 flush 와 여기 중 한쪽에서만 집힌다
+        if (pending.get(reviewId) != adder) {
+            long late = adder.sumThenReset();
+            if (late != 0)
+                pending.computeIfAbsent(reviewId, id -> new LongAdder()).add(late);
+        }
+    }
+
+    // 아직 DB에 쓰지 않은 변화량
+    public long pending(Long reviewId) {
+        LongAdder adder = pending.get(reviewId);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    public synchronized void flush() {
+
+        List<long[]> batch = new ArrayList<>();
+
+        // 항목을 꺼낸 뒤 합을 비운다: 쓴 항목은 맵에 남지 않고,
+        // 꺼낸 adder 에 늦게 더해진 값은 add 가 새 항목으로 옮긴다
+        for (Long reviewId : pending.keySet()) {
+            LongAdder adder = pending.remove(reviewId);
+            long delta = adder != null ? adder.sumThenReset() : 0;
+            if (delta != 0)
+                batch.add(new long[] { reviewId, delta });
+        }
+
+        if (batch.isEmpty())
+            return;
+
+        try {
+            tx.executeWithoutResult(status -> batch.forEach(
+                    b -> reviewRepository.addLikeCount(b[0], (int) b[1])));
+        } catch (RuntimeException e) {
+            // 실패하면 다음 flush에서 다시 쓴다
+            log.warn("Review like flush failed, retrying " + batch.size() + " counters: " + e.getMessage());
+            batch.forEach(b -> add(b[0], (int) b[1]));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        flush();
+    }
+}
@@ -1,23 +1,42 @@
 package com.project.backend.service;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.project.backend.dto.CursorPageDTO;
 import com.project.backend.dto.ReviewDTO;
+import com.project.backend.dto.ReviewLikeDTO;
 import com.project.backend.dto.ReviewStyleDTO;
 import com.project.backend.dto.ReviewerDTO;
+import com.project.backend.constants.StatusMessages;
+import com.project.backend.event.ProductChangedEvent;
 import com.project.backend.model.Product;
 import com.project.backend.model.Review;
+import com.project.backend.model.ReviewLike;
 import com.project.backend.model.ReviewStyle;
 import com.project.backend.model.User;
 import com.project.backend.repository.ProductRepository;
+import com.project.backend.repository.ReviewLikeRepository;
 import com.project.backend.repository.ReviewRepository;
 import com.project.backend.repository.UserRepository;
 import com.project.backend.security.request.ReviewRequest;
+import com.project.backend.util.PageCursor;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -32,13 +51,115 @@ public class ReviewService {
     
     private final ReviewRepository reviewRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReviewLikeRepository reviewLikeRepository;
+
+    private final ReviewLikeCounter reviewLikeCounter;
+
+    private final TransactionTemplate tx;
+
+    // 리뷰 등록/수정 응답에 돌려주는 최신 리뷰 수
+    private static final int RETURNED_REVIEWS = 10;
+
     
     @Autowired
     public ReviewService(UserRepository userRepository, ProductRepository productRepository,
-            ReviewRepository reviewRepository) {
+            ReviewRepository reviewRepository, ApplicationEventPublisher eventPublisher,
+            ReviewLikeRepository reviewLikeRepository, ReviewLikeCounter reviewLikeCounter,
+            PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.productRepository = productRepository;
         this.reviewRepository = reviewRepository;
+        this.eventPublisher = eventPublisher;
+        this.reviewLikeRepository = reviewLikeRepository;
+        this.reviewLikeCounter = reviewLikeCounter;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * One keyset page of a product's reviews. sort is newest (default), rating
+     * or likes.
+     */
+    public CursorPageDTO<ReviewDTO> getReviews(Long productId, String sort, String cursor, int size) {
+
+        String order = "rating".equals(sort) || "likes".equals(sort) ? sort : "newest";
+        String scope = "reviews:" + productId + ":" + order;
+
+        PageCursor after = PageCursor.decode(scope, cursor);
+        Long afterId = after != null ? after.getId() : null;
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<Review> reviews;
+        switch (order) {
+            case "rating":
+                reviews = reviewRepository.findTopRatedPage(productId,
+                        after != null ? (float) after.getKey() : null, afterId, limit);
+                break;
+            case "likes":
+                reviews = reviewRepository.findMostLikedPage(productId,
+                        after != null ? (int) after.getKey() : null, afterId, limit);
+                break;
+            default:
+                reviews = reviewRepository.findNewestPage(productId,
+                        after != null ? fromEpochMicros((long) after.getKey()) : null, afterId, limit);
+        }
+
+        boolean hasNext = reviews.size() > size;
+        if (hasNext)
+            reviews = reviews.subList(0, size);
+
+        String nextCursor = null;
+        if (hasNext) {
+            Review last = reviews.get(size - 1);
+            double key = "rating".equals(order) ? last.getRating()
+                    : "likes".equals(order) ? last.getLikeCount()
+                    : toEpochMicros(last.getCreatedAt());
+            nextCursor = PageCursor.encode(scope, key, last.getReviewId());
+        }
+
+        return CursorPageDTO.<ReviewDTO>builder()
+                .content(reviews.stream().map(ReviewService::toDto).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    public static ReviewDTO toDto(Review review) {
+
+        return ReviewDTO.builder()
+                .id(Long.toString(review.getReviewId()))
+                .images(review.getImages())
+                .rating(review.getRating())
+                .fit(review.getFit())
+                .review(review.getReview())
+                .reviewedBy(ReviewerDTO.builder()
+                        .name(review.getReviewedBy().getUserName())
+                        .image(review.getReviewedBy().getImage())
+                        .build())
+                .likes(review.getLikes())
+                .likeCount(review.getLikeCount())
+                .size(review.getSize())
+                .style(ReviewStyleDTO.builder()
+                        .color(review.getStyle().getColor())
+                        .image(review.getStyle().getImage())
+                        .build())
+                .createdAt(review.getCreatedAt() != null ? review.getCreatedAt().toString() : null)
+                .build();
+    }
+
+    // 커서에는 created_at을 UTC 기준 마이크로초로 넣는다 (MySQL datetime(6) 정밀도)
+    private static long toEpochMicros(LocalDateTime time) {
+
+        if (time == null)
+            return 0L;
+
+        Instant instant = time.toInstant(ZoneOffset.UTC);
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
     }
 
     public boolean deleteReview(String username, String productId) {
@@ -56,24 +177,25 @@ public class ReviewService {
         Product p = productRepository.findById(id)
                .orElseThrow(() -> new RuntimeException("Product not found! " + productId));
 
-      
-        
-        if (null != p) {
-            
+        // 삭제와 집계 반영을 한 트랜잭션으로, 잠근 행의 평점을 뺀다
+        Boolean deleted = tx.execute(status -> {
 
-            if (!p.getReviews().isEmpty()) {
+            Optional<Review> review = reviewRepository.findForUpdate(id, user.get().getUserId());
+            if (!review.isPresent())
+                return false;
 
-                Review review = p.getReviews().stream().filter(r -> r.getReviewedBy().equals(user.get())).findFirst()
-                        .get();
+            reviewRepository.deleteById(review.get().getReviewId());
+            reviewLikeRepository.deleteByReviewId(review.get().getReviewId());
 
+            applyDelta(id, review.get().getRating(), null);
+            return true;
+        });
 
-                if (null != review) {
-                    
-                    reviewRepository.deleteById(review.getReviewId());                    
-                    
-                    return true;
-                }
-            }
+        if (Boolean.TRUE.equals(deleted)) {
+
+            eventPublisher.publishEvent(new ProductChangedEvent(this, id, p.getCategory().getCategoryId()));
+
+            return true;
         }
 
         return false;
@@ -95,108 +217,154 @@ public class ReviewService {
 
             Product p = existed.get();
 
-            if (!p.getReviews().isEmpty()) {
-
-                Review review = p.getReviews().stream().filter(r -> r.getReviewedBy().equals(user.get())).findFirst()
-                        .get();
-
-                if (null != review) {
-                    
-                    review.setReview(request.getReview());
-                    review.setFit(request.getFit());
-                    review.setSize(request.getSize());
-                    review.setRating(request.getRating());
-                    review.setImages(request.getImages());
-                    review.setStyle(
-                            ReviewStyle.builder()
-                                    .color(request.getStyle().getColor())
-                                    .image(request.getStyle().getImage()).build());
-                    review.setProduct(p);
-                    review.setReviewedBy(user.get());
-
-                    reviewRepository.save(review);
-
-                    float totalPoints = p.getReviews().stream().map(Review::getRating).reduce(0F, Float::sum);
-                    float rating = totalPoints / p.getReviews().size();
-
-                    productRepository.updateRating(id, rating);
-
-                    List<ReviewDTO> result = new ArrayList<>();
-
-                    for (Review r : p.getReviews()) {
-
-                        ReviewDTO dto = new ReviewDTO();
-                        dto.setFit(r.getFit());
-                        dto.setImages(r.getImages());
-                        dto.setRating(r.getRating());
-                        dto.setReview(r.getReview());
-                        dto.setStyle(ReviewStyleDTO.builder()
-                                .color(r.getStyle().getColor())
-                                .image(r.getStyle().getImage()).build());
-                        dto.setSize(r.getSize());
-                        dto.setReviewedBy(ReviewerDTO.builder()
-                        .name(username)
-                        .image(user.get().getImage())
+            try {
+                tx.executeWithoutResult(status -> writeReview(p, user.get(), request));
+            } catch (DataIntegrityViolationException e) {
+                // 같은 사용자의 리뷰가 동시에 만들어졌다 (uk_review_product_user): 먼저 들어간 리뷰를 고친다
+                tx.executeWithoutResult(status -> writeReview(p, user.get(), request));
+            }
+
+            eventPublisher.publishEvent(new ProductChangedEvent(this, id, p.getCategory().getCategoryId()));
+
+            return reviewRepository.findNewestPage(id, null, null, PageRequest.of(0, RETURNED_REVIEWS)).stream()
+                    .map(ReviewService::toDto)
+                    .collect(Collectors.toList());
+        }
+        return null;
+    }
+
+    /**
+     * Like (or unlike) a review once per user. The (review_id, user_id) row
+     * decides whether anything changed; the count itself goes through
+     * {@link ReviewLikeCounter}.
+     */
+    public ReviewLikeDTO likeReview(String username, Long reviewId, boolean like) {
+
+        User user = userRepository.findByUserName(username)
+                .orElseThrow(() -> new RuntimeException(StatusMessages.USER_NOT_FOUND));
+
+        Integer stored = reviewRepository.findLikeCount(reviewId);
+        if (stored == null)
+            throw new RuntimeException("Review not found! " + reviewId);
+
+        boolean changed;
+        if (like && reviewLikeRepository.existsByReviewIdAndUserId(reviewId, user.getUserId())) {
+            changed = false;
+        } else if (like) {
+            // 동시에 두 번 눌린 경우는 unique 제약이 막는다
+            try {
+                reviewLikeRepository.save(ReviewLike.builder()
+                        .reviewId(reviewId)
+                        .userId(user.getUserId())
                         .build());
+                changed = true;
+            } catch (DataIntegrityViolationException e) {
+                // 이미 좋아요한 리뷰
+                changed = false;
+            }
+        } else {
+            changed = reviewLikeRepository.deleteByReviewIdAndUserId(reviewId, user.getUserId()) > 0;
+        }
+
+        if (changed)
+            reviewLikeCounter.add(reviewId, like ? 1 : -1);
 
-                        result.add(dto);
-                    }
+        // 요청한 값이 아니라 처리 뒤의 실제 상태 (같은 사용자의 다른 요청이 겹쳤을 수 있다)
+        boolean liked = reviewLikeRepository.existsByReviewIdAndUserId(reviewId, user.getUserId());
 
-                    return result;
-                }
-            } else {
+        return ReviewLikeDTO.builder()
+                .reviewId(Long.toString(reviewId))
+                .liked(liked)
+                .likeCount(stored + reviewLikeCounter.pending(reviewId))
+                .build();
+    }
+
+    // 한 사용자당 리뷰 하나: 있으면 수정, 없으면 새로 만든다. 트랜잭션 안에서 부른다:
+    // 기존 리뷰는 잠가서 읽고, 리뷰 쓰기와 집계 반영이 함께 커밋된다
+    private void writeReview(Product p, User user, ReviewRequest request) {
+
+        Review review = reviewRepository.findForUpdate(p.getProductId(), user.getUserId()).orElse(null);
+
+        Float previousRating = review != null ? review.getRating() : null;
+
+        if (review == null) {
+            review = new Review();
+            review.setProduct(p);
+            review.setReviewedBy(user);
+        }
 
-                
-                Review r = new Review();
-                r.setFit(request.getFit());
-                r.setImages(request.getImages());
-                r.setRating(request.getRating());
-                r.setReview(request.getReview());
-                r.setStyle(ReviewStyle.builder()
+        review.setReview(request.getReview());
+        review.setFit(request.getFit());
+        review.setSize(request.getSize());
+        review.setRating(request.getRating());
+        review.setImages(request.getImages());
+        review.setStyle(
+                ReviewStyle.builder()
                         .color(request.getStyle().getColor())
                         .image(request.getStyle().getImage()).build());
-                r.setSize(request.getSize());
 
-                r.setProduct(p);
-                r.setReviewedBy(user.get());
-                
-                p.getReviews().add(r);
-                
+        // 동시에 만들어진 리뷰와의 unique 충돌을 집계 반영 전에 드러낸다
+        reviewRepository.saveAndFlush(review);
 
-                p.setNum_reviews(p.getReviews().size());
+        applyDelta(p.getProductId(), previousRating, request.getRating());
+    }
 
-                float totalPoints = p.getReviews().stream().map(Review::getRating).reduce(0F, Float::sum);
-                p.setRating(totalPoints / p.getReviews().size());
+    // 집계 컬럼이 생기기 전부터 리뷰가 있던 상품은 별점 개수가 0 이다: 시작할 때 그 상품들만 다시 계산한다
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillAggregates() {
 
-                
-                reviewRepository.save(r);
-                
-                productRepository.save(p);
-                
+        try {
+            int updated = productRepository.reconcileReviewAggregatesOf(null);
+            if (updated > 0) {
+                log.info("Backfilled review aggregates for " + updated + " products");
+                eventPublisher.publishEvent(new ProductChangedEvent(this, null, null));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Review aggregate backfill failed: " + e.getMessage());
+        }
+    }
 
-                List<ReviewDTO> result = new ArrayList<>();
+    /**
+     * Rebuilds every product's review aggregates from the review table.
+     */
+    public int reconcileAggregates() {
 
-                for (Review i : p.getReviews()) {
+        int updated = productRepository.reconcileReviewAggregates();
 
-                    ReviewDTO dto = new ReviewDTO();
-                    dto.setFit(i.getFit());
-                    dto.setImages(i.getImages());
-                    dto.setRating(i.getRating());
-                    dto.setReview(i.getReview());
-                    dto.setStyle(ReviewStyleDTO.builder()
-                            .color(i.getStyle().getColor())
-                            .image(i.getStyle().getImage()).build());
-                    dto.setSize(i.getSize());
-                    dto.setReviewedBy(new ReviewerDTO(username, user.get().getImage()));
+        eventPublisher.publishEvent(new ProductChangedEvent(this, null, null));
 
-                    result.add(dto);
-                }
+        return updated;
+    }
 
-                return result;
+    // 이전 평점을 빼고 새 평점을 더한다 (null이면 없음)
+    private void applyDelta(Long productId, Float removed, Float added) {
 
-            }
+        int[] stars = new int[5];
+        double sum = 0;
+        int count = 0;
+
+        if (removed != null) {
+            sum -= removed;
+            count--;
+            stars[star(removed) - 1]--;
         }
-        return null;
+        if (added != null) {
+            sum += added;
+            count++;
+            stars[star(added) - 1]++;
+        }
+
+        int updated = productRepository.applyReviewDelta(productId, sum, count,
+                stars[0], stars[1], stars[2], stars[3], stars[4]);
+
+        // 집계가 맞지 않는 상품 (이전 데이터 등)은 review 테이블에서 다시 계산한다, 방금 쓴 리뷰도 포함된다
+        if (updated == 0 && productRepository.reconcileReviewAggregatesOf(productId) == 0)
+            log.warn("Review aggregates out of range for product " + productId + ", run reconciliation");
+    }
+
+    // 반올림한 별점 (1~5), 재집계 쿼리의 floor(rating + 0.5)와 같아야 한다
+    static int star(float rating) {
+        return (int) Math.min(Math.max(Math.floor(rating + 0.5), 1), 5);
     }
 
 }
@@ -0,0 +1,147 @@
+package com.project.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import com.project.backend.dto.ColorAttributeDTO;
+import com.project.backend.dto.SkuPriceDTO;
+import com.project.backend.repository.ProductSkuRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * (productId, style, size) 로 가격/할인/재고/이미지를 찾는다.
+ * Product 그래프 대신 sku+size 행만 한 번 읽는다 (product_sku.product_id 인덱스).
+ */
+@Slf4j
+@Service
+public class SkuPricingService {
+
+    private final ProductSkuRepository productSkuRepository;
+
+    private final PricingEngine pricingEngine;
+
+    public SkuPricingService(ProductSkuRepository productSkuRepository, PricingEngine pricingEngine) {
+        this.productSkuRepository = productSkuRepository;
+        this.pricingEngine = pricingEngine;
+    }
+
+    // size 는 sku 안의 순서
+    public SkuPriceDTO resolve(Long productId, int style, int sizeIndex) {
+        return find(productId, style, sizeIndex, null);
+    }
+
+    // size 는 이름 ("XL" 등)
+    public SkuPriceDTO resolve(Long productId, int style, String size) {
+        if (size == null)
+            return null;
+        return find(productId, style, -1, size);
+    }
+
+    // 여러 상품의 sku/size 행을 한 번에 읽어 두고 줄마다 메모리에서 찾는다
+    public Batch load(Collection<Long> productIds) {
+
+        Map<Long, List<Object[]>> rows = new HashMap<>();
+
+        if (!productIds.isEmpty()) {
+            for (Object[] row : productSkuRepository.findPricingRowsIn(productIds))
+                rows.computeIfAbsent((Long) row[13], id -> new ArrayList<>()).add(row);
+        }
+        return new Batch(rows);
+    }
+
+    public class Batch {
+
+        private final Map<Long, List<Object[]>> rows;
+
+        private Batch(Map<Long, List<Object[]>> rows) {
+            this.rows = rows;
+        }
+
+        public SkuPriceDTO resolve(Long productId, int style, String size) {
+
+            if (productId == null || size == null || style < 0)
+                return null;
+
+            List<Object[]> productRows = rows.get(productId);
+            return productRows == null ? null : match(productRows, productId, style, -1, size);
+        }
+    }
+
+    private SkuPriceDTO find(Long productId, int style, int sizeIndex, String size) {
+
+        if (productId == null || style < 0)
+            return null;
+
+        return match(productSkuRepository.findPricingRows(productId), productId, style, sizeIndex, size);
+    }
+
+    // rows 는 sku, size 순서로 정렬된 한 상품의 행
+    private SkuPriceDTO match(List<Object[]> rows, Long productId, int style, int sizeIndex, String size) {
+
+        Long currentSku = null;
+        int styleIndex = -1;
+        int index = -1;
+
+        for (Object[] row : rows) {
+
+            Long skuId = (Long) row[0];
+            if (!skuId.equals(currentSku)) {
+                currentSku = skuId;
+                styleIndex++;
+                index = -1;
+            }
+            if (styleIndex < style)
+                continue;
+            if (styleIndex > style || row[7] == null)
+                break;
+
+            index++;
+            if (size != null ? size.equals(row[8]) : index == sizeIndex)
+                return toDto(productId, style, index, row);
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private SkuPriceDTO toDto(Long productId, int style, int sizeIndex, Object[] row) {
+
+        int discount = (Integer) row[2];
+        int priceBefore = row[9] == null ? 0 : (Integer) row[9];
+
+        int price = pricingEngine.price((Long) row[7]);
+        if (price == PricingEngine.UNKNOWN)
+            price = PricingEngine.discounted(priceBefore, discount);
+
+        ColorAttributeDTO color = row[4] == null ? null
+                : ColorAttributeDTO.builder()
+                        .id(Long.toString((Long) row[4]))
+                        .color((String) row[5])
+                        .colorImage((String) row[6])
+                        .build();
+
+        return SkuPriceDTO.builder()
+                .productId(productId)
+                .name((String) row[11])
+                .shipping((Integer) row[12])
+                .skuId((Long) row[0])
+                .sku((String) row[1])
+                .style(style)
+                .discount(discount)
+                .images((List<String>) row[3])
+                .color(color)
+                .sizeId((Long) row[7])
+                .sizeIndex(sizeIndex)
+                .size((String) row[8])
+                .priceBefore(priceBefore)
+                .price(price)
+                .quantity((Integer) row[10])
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.project.backend.util;
+
+/**
+ * Open-addressing long -> int map (linear probing, no removal).
+ * Lookups do not box or allocate. Key 0 is reserved as the empty slot,
+ * which never collides with a Tsid.
+ */
+public final class LongIntMap {
+
+    private final long[] keys;
+
+    private final int[] values;
+
+    private final int mask;
+
+    private int size;
+
+    public LongIntMap(int expected) {
+
+        int capacity = 4;
+        while (capacity < expected * 2)
+            capacity <<= 1;
+
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public void put(long key, int value) {
+
+        if (key == 0)
+            throw new IllegalArgumentException("key 0 is reserved");
+
+        int i = slot(key);
+        while (keys[i] != 0 && keys[i] != key)
+            i = (i + 1) & mask;
+
+        if (keys[i] == 0) {
+            if (size + 1 > keys.length / 2)
+                throw new IllegalStateException("LongIntMap is full");
+            keys[i] = key;
+            size++;
+        }
+        values[i] = value;
+    }
+
+    public int get(long key, int missing) {
+
+        if (key == 0)
+            return missing;
+
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key)
+                return values[i];
+            i = (i + 1) & mask;
+        }
+        return missing;
+    }
+
+    // Copies every entry of other, used to grow a small map copy-on-write.
+    public void putAll(LongIntMap other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != 0)
+                put(other.keys[i], other.values[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,58 @@
+package com.project.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import lombok.Getter;
+
+/**
+ * Opaque keyset cursor: the (sortKey, id) of the last row a client saw.
+ * The scope ties a cursor to the listing and sort order that issued it.
+ */
+@Getter
+public class PageCursor {
+
+    private final double key;
+
+    private final long id;
+
+    public PageCursor(double key, long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static String encode(String scope, double key, long id) {
+
+        String raw = scope + ":" + key + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(String scope, long id) {
+        return encode(scope, id, id);
+    }
+
+    /**
+     * null for a missing, malformed or foreign cursor; callers then start
+     * from the first page.
+     */
+    public static PageCursor decode(String scope, String token) {
+
+        if (token == null || token.isBlank())
+            return null;
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+
+            int idSep = raw.lastIndexOf(':');
+            int keySep = raw.lastIndexOf(':', idSep - 1);
+            if (keySep < 0 || !raw.substring(0, keySep).equals(scope))
+                return null;
+
+            return new PageCursor(Double.parseDouble(raw.substring(keySep + 1, idSep)),
+                    Long.parseLong(raw.substring(idSep + 1)));
+
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.project.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import com.project.backend.repository.OrderRepository;
+import com.project.backend.repository.ProductRepository;
+import com.project.backend.repository.ProductSizeRepository;
+import com.project.backend.repository.ProductSkuRepository;
+import com.project.backend.repository.StockReservationRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the flash-sale Lua scripts against a Redis on localhost:6379
+ * (database 15), with the MySQL side mocked. Skipped when no Redis is up.
+ */
+@EnabledIf("redisAvailable")
+class FlashSaleStockTest {
+
+    private static final String HOST = "localhost";
+
+    private static final int PORT = 6379;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static StringRedisTemplate redisTemplate;
+
+    private FlashSaleStock flashSaleStock;
+
+    private FlashSaleWriteBehind writeBehind;
+
+    private InventoryService inventoryService;
+
+    private ProductSizeRepository productSizeRepository;
+
+    private ProductSkuRepository productSkuRepository;
+
+    private StockReservationRepository stockReservationRepository;
+
+    static boolean redisAvailable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(HOST, PORT), 200);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @BeforeAll
+    static void connect() {
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(HOST, PORT);
+        config.setDatabase(15);
+        connectionFactory = new LettuceConnectionFactory(config);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        clear();
+
+        flashSaleStock = new FlashSaleStock(redisTemplate);
+        ReflectionTestUtils.setField(flashSaleStock, "enabled", true);
+
+        productSizeRepository = mock(ProductSizeRepository.class);
+        productSkuRepository = mock(ProductSkuRepository.class);
+        stockReservationRepository = mock(StockReservationRepository.class);
+
+        NoopTransactionManager transactionManager = new NoopTransactionManager();
+
+        writeBehind = new FlashSaleWriteBehind(flashSaleStock, productSizeRepository, productSkuRepository,
+                transactionManager);
+        ReflectionTestUtils.setField(writeBehind, "flushLockMs", 5000L);
+
+        inventoryService = new InventoryService(productSizeRepository, mock(ProductRepository.class),
+                productSkuRepository, stockReservationRepository, mock(OrderRepository.class),
+                mock(ApplicationEventPublisher.class),
+                flashSaleStock, writeBehind, transactionManager, new SimpleMeterRegistry(), 16);
+        ReflectionTestUtils.setField(inventoryService, "lockWaitMs", 1000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clear();
+    }
+
+    @Test
+    void takeIsAllOrNothing() {
+
+        flashSaleStock.arm(Map.of(1L, 5, 2L, 1));
+
+        // 2번이 모자라면 1번도 차감하지 않는다
+        assertNull(flashSaleStock.take(Map.of(1L, 2, 2L, 2)));
+        assertEquals(5, counter(1L));
+        assertEquals(1, counter(2L));
+        assertTrue(flashSaleStock.popPending().isEmpty());
+
+        // 카운터가 없는 3번은 DB 몫으로 돌려준다
+        assertEquals(Set.of(1L, 2L), flashSaleStock.take(Map.of(1L, 2, 2L, 1, 3L, 4)));
+        assertEquals(3, counter(1L));
+        assertEquals(0, counter(2L));
+        assertEquals(Map.of(1L, -2, 2L, -1), flashSaleStock.popPending());
+    }
+
+    @Test
+    void rolledBackReservationGivesStockBack() {
+
+        flashSaleStock.arm(Map.of(1L, 5));
+        when(productSizeRepository.reserve(2L, 1)).thenReturn(0);
+
+        // Redis 에서 잡은 뒤 DB 사이즈가 품절이라 트랜잭션이 되돌려진다
+        assertThrows(RuntimeException.class, () -> inventoryService.reserve(100L,
+                List.of(new InventoryService.Line(1L, 10L, 2), new InventoryService.Line(2L, 20L, 1))));
+
+        assertEquals(5, counter(1L));
+        assertTrue(flashSaleStock.popPending().isEmpty());
+        verify(stockReservationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void giveBackAfterDisarmGoesToMySql() {
+
+        flashSaleStock.arm(Map.of(1L, 5));
+
+        // 예약을 저장하기 전에 해제되고 트랜잭션도 실패한다
+        when(stockReservationRepository.saveAll(any())).thenAnswer(invocation -> {
+            flashSaleStock.disarm(Set.of(1L));
+            throw new IllegalStateException("insert failed");
+        });
+
+        assertThrows(IllegalStateException.class,
+                () -> inventoryService.reserve(100L, List.of(new InventoryService.Line(1L, 10L, 2))));
+
+        assertNull(redisTemplate.opsForValue().get("{stock}:size:1"));
+        verify(productSizeRepository).addQuantity(1L, 2);
+    }
+
+    @Test
+    void armAddsDeltasNotYetFlushed() {
+
+        flashSaleStock.arm(Map.of(1L, 10));
+        flashSaleStock.take(Map.of(1L, 3));
+        flashSaleStock.disarm(Set.of(1L));
+
+        // DB 는 아직 10, 반영되지 않은 -3 을 더해 채운다
+        when(productSizeRepository.findStockRows(7L)).thenReturn(rows(1L, 10));
+        assertEquals(1, inventoryService.armFlashSale(7L));
+        assertEquals(7, counter(1L));
+
+        // 이미 있는 카운터는 덮지 않는다
+        when(productSizeRepository.findStockRows(7L)).thenReturn(rows(1L, 100));
+        inventoryService.armFlashSale(7L);
+        assertEquals(7, counter(1L));
+    }
+
+    @Test
+    void armAfterFlushDoesNotCountDeltasTwice() {
+
+        flashSaleStock.arm(Map.of(1L, 10));
+        flashSaleStock.take(Map.of(1L, 3));
+        flashSaleStock.disarm(Set.of(1L));
+
+        writeBehind.flush();
+        verify(productSizeRepository).addQuantity(1L, -3);
+
+        // 반영된 뒤의 DB 재고 7 에 남은 차감분이 없다
+        when(productSizeRepository.findStockRows(7L)).thenReturn(rows(1L, 7));
+        inventoryService.armFlashSale(7L);
+        assertEquals(7, counter(1L));
+    }
+
+    @Test
+    void flushAppliesPendingAndSold() {
+
+        flashSaleStock.arm(Map.of(1L, 10, 2L, 4));
+        flashSaleStock.take(Map.of(1L, 3));
+        flashSaleStock.take(Map.of(2L, 1));
+        flashSaleStock.addSold(Map.of(1L, 3));
+
+        writeBehind.flush();
+
+        verify(productSizeRepository).addQuantity(1L, -3);
+        verify(productSizeRepository).addQuantity(2L, -1);
+        verify(productSkuRepository).addSold(1L, 3);
+        assertTrue(flashSaleStock.popPending().isEmpty());
+        assertTrue(flashSaleStock.popSold().isEmpty());
+    }
+
+    @Test
+    void failedFlushRequeuesDeltas() {
+
+        flashSaleStock.arm(Map.of(1L, 10));
+        flashSaleStock.take(Map.of(1L, 3));
+        doThrow(new IllegalStateException("db down")).when(productSizeRepository).addQuantity(anyLong(), anyInt());
+
+        writeBehind.flush();
+
+        assertEquals(Map.of(1L, -3), flashSaleStock.popPending());
+    }
+
+    private static List<Object[]> rows(Long sizeId, Integer quantity) {
+        return List.<Object[]>of(new Object[] { sizeId, quantity });
+    }
+
+    private static int counter(Long sizeId) {
+        return Integer.parseInt(redisTemplate.opsForValue().get("{stock}:size:" + sizeId));
+    }
+
+    private static void clear() {
+        Set<String> keys = redisTemplate.keys("{stock}:*");
+        if (keys != null && !keys.isEmpty())
+            redisTemplate.delete(keys);
+    }
+
+    // 트랜잭션 동기화만 돌리는 가짜 트랜잭션 매니저 (커밋/롤백 콜백 확인용)
+    @SuppressWarnings("serial")
+    private static class NoopTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
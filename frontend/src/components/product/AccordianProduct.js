@@ -6,6 +6,9 @@ import MuiAccordionSummary from "@mui/material/AccordionSummary";
 import MuiAccordionDetails from "@mui/material/AccordionDetails";
 import Typography from "@mui/material/Typography";
 import { ChevronRightIcon } from "@heroicons/react/24/outline";
+import { getRequest } from "util/api";
+
+const QUESTION_PAGE_SIZE = 10;
 
 const Accordion = styled((props) => (
     <MuiAccordion disableGutters elevation={0} square {...props} />
@@ -44,14 +47,35 @@ const AccordionDetails = styled(MuiAccordionDetails)(({ theme }) => ({
     borderTop: "1px solid rgba(0, 0, 0, .125)",
 }));
 
-export default function AccoridanProduct({ details, questions }) {
+export default function AccoridanProduct({ details, productId, questionCount }) {
     // console.log('question',questions)
     const [expanded, setExpanded] = React.useState();
 
+    // 상품 응답에는 개수만 온다, 본문은 패널을 처음 열 때 /product/{id}/questions 에서 받는다
+    const [questions, setQuestions] = React.useState(null);
+    const [nextCursor, setNextCursor] = React.useState(null);
+    const [loading, setLoading] = React.useState(false);
+
+    const loadQuestions = async (cursor) => {
+        setLoading(true);
+        try {
+            const query = cursor ? `&cursor=${encodeURIComponent(cursor)}` : "";
+            const { data } = await getRequest(
+                `/product/${productId}/questions?size=${QUESTION_PAGE_SIZE}${query}`
+            );
+            setQuestions((prev) => (cursor && prev ? [...prev, ...data.content] : data.content));
+            setNextCursor(data.nextCursor);
+        } finally {
+            setLoading(false);
+        }
+    };
+
     const handleChange =
         (panel) =>
         (event, newExpanded) => {
             setExpanded(newExpanded ? panel : false);
+            if (panel === "panel2" && newExpanded && questions === null && questionCount > 0)
+                loadQuestions(null);
         };
 
     return (
@@ -85,17 +109,24 @@ export default function AccoridanProduct({ details, questions }) {
                     aria-controls="panel2d-content"
                     id="panel2d-header"
                 >
-                    <Typography>Questions</Typography>
+                    <Typography>Questions ({questionCount ?? 0})</Typography>
                 </AccordionSummary>
                 <AccordionDetails>
-                    {questions
-                        .slice(0, questions.length)
-                        .map((info, i) => (
-                            <div key={i} className="grid grid-cols-2 gap-y-3">
-                                <span>{info.question}</span>
-                                <span>{info.answer}</span>
-                            </div>
-                        ))}
+                    {(questions ?? []).map((info, i) => (
+                        <div key={i} className="grid grid-cols-2 gap-y-3">
+                            <span>{info.question}</span>
+                            <span>{info.answer}</span>
+                        </div>
+                    ))}
+                    {loading && <span className="text-sm">Loading...</span>}
+                    {!loading && nextCursor && (
+                        <button
+                            onClick={() => loadQuestions(nextCursor)}
+                            className="mt-2 text-sm font-semibold underline"
+                        >
+                            More questions
+                        </button>
+                    )}
                 </AccordionDetails>
             </Accordion>
         </div>
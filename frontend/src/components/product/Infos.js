@@ -322,7 +322,8 @@ const Infos = ({ product, setActiveImg }) => {
             <div className="mt-4">
                 <AccoridanProduct
                     details={product.details}
-                    questions={product.questions}
+                    productId={product.id}
+                    questionCount={product.questionCount}
                 />
             </div>
         </div>
@@ -4,6 +4,9 @@ import { useState } from "react";
 import AddReview from "./Review";
 import Table from "./Table";
 import { useNavigate } from "react-router-dom";
+import { getRequest } from "util/api";
+
+const REVIEW_PAGE_SIZE = 10;
 
 const Reviews = ({ product }) => {
     const navigate = useNavigate();
@@ -11,14 +14,39 @@ const Reviews = ({ product }) => {
     const { token } = useAuthContext();
 
     const [reviews, setReviews] = useState(product.reviews)
-    
-     
-    
+
+    // product.reviews 는 최신 일부만 온다, 나머지는 /product/{id}/reviews 로 이어 받는다
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
+
+    const total = Math.max(product.reviewSummary?.count ?? 0, reviews?.length ?? 0);
+
+    const loadMoreReviews = async () => {
+        setLoadingMore(true);
+        try {
+            // 처음에는 커서가 없으므로 이미 받은 만큼 + 한 페이지를 새로 받는다
+            const size = nextCursor ? REVIEW_PAGE_SIZE : (reviews?.length ?? 0) + REVIEW_PAGE_SIZE;
+            const cursor = nextCursor ? `&cursor=${encodeURIComponent(nextCursor)}` : "";
+            const { data } = await getRequest(
+                `/product/${product.id}/reviews?sort=newest&size=${size}${cursor}`
+            );
+            setReviews(nextCursor ? [...reviews, ...data.content] : data.content);
+            setNextCursor(data.nextCursor);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
+    // 리뷰를 쓰거나 지우면 목록이 새로 오므로 커서를 버린다
+    const replaceReviews = (list) => {
+        setReviews(list);
+        setNextCursor(null);
+    };
 
     return (
         <div className="mt-4 bg-slate-100 mx-auto w-full md:w-4/5 p-4 border rounded-md">
             <h3 className="mb-2 font-bold text-2xl">
-                Customer Reviews ({product.reviews.length })
+                Customer Reviews ({total})
             </h3>
             <div className="grid md:grid-cols-2">
                 <div className="flex max-md:items-center md:flex-col md:justify-center">
@@ -66,7 +94,7 @@ const Reviews = ({ product }) => {
                 </div>
             </div>
             {token ? (
-                <AddReview product={product} setReviews={setReviews} />
+                <AddReview product={product} setReviews={replaceReviews} />
             ) : (
                 <button
                     onClick={() => navigate('/signin')}
@@ -80,6 +108,17 @@ const Reviews = ({ product }) => {
                     <Table reviews={reviews} allSizes={product.allSizes} colors={product.colors} />
                 )
             }
+            {
+                (reviews?.length ?? 0) < total && (
+                    <button
+                        onClick={loadMoreReviews}
+                        disabled={loadingMore}
+                        className="mt-4 w-full border border-slate-400 font-semibold px-4 py-2 rounded"
+                    >
+                        {loadingMore ? "Loading..." : `Show more reviews (${reviews?.length ?? 0} of ${total})`}
+                    </button>
+                )
+            }
         </div>
     );
 };
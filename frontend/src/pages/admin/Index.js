@@ -75,7 +75,8 @@ const AdminProduct = () => {
                     brand: data.brand,
                     category: data.category.id,
                     subCategories: Array.from(data.subCategories, (sub)=>sub['id']),
-                    questions: data.questions,
+                    // 상품 응답에는 Q&A 개수만 온다 (본문은 /product/{id}/questions), 부모 상품에 sku 를 더할 때는 쓰이지 않는다
+                    questions: data.questions ?? product.questions,
                     details: data.details,
                     discount: data.discount
                 })